@@ -0,0 +1,75 @@
+package ru.hogwarts.school.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.dto.FacultyResponseDto;
+import ru.hogwarts.school.dto.StudentResponseDto;
+import ru.hogwarts.school.dto.VersionedDto;
+import ru.hogwarts.school.mapper.FacultyMapper;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.BatchLoader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Configuration
+public class BatchLoaderConfig {
+    @Value("${loader.window-millis}")
+    private long windowMillis;
+    @Value("${loader.max-batch-size}")
+    private int maxBatchSize;
+
+    @Bean
+    public BatchLoader<VersionedDto<StudentResponseDto>> studentLoader(StudentRepository studentRepository,
+                                                                       PlatformTransactionManager transactionManager,
+                                                                       MeterRegistry meterRegistry) {
+        TransactionTemplate transactionTemplate = readOnly(transactionManager);
+        return new BatchLoader<>("student",
+                ids -> transactionTemplate.execute(status -> studentRepository.findVersionedDtosByIdIn(ids).stream()
+                        .map(row -> new VersionedDto<>((StudentResponseDto) row[0], (Long) row[1]))
+                        .collect(Collectors.toMap(student -> student.value().id(), Function.identity()))),
+                windowMillis, maxBatchSize, meterRegistry);
+    }
+
+    @Bean
+    public BatchLoader<VersionedDto<FacultyResponseDto>> facultyLoader(FacultyRepository facultyRepository,
+                                                                       EntityManager entityManager,
+                                                                       FacultyMapper facultyMapper,
+                                                                       PlatformTransactionManager transactionManager,
+                                                                       MeterRegistry meterRegistry) {
+        TransactionTemplate transactionTemplate = readOnly(transactionManager);
+        return new BatchLoader<>("faculty",
+                ids -> transactionTemplate.execute(status -> {
+                    Cache cache = entityManager.getEntityManagerFactory().getCache();
+                    Map<Boolean, List<Long>> cached = ids.stream()
+                            .collect(Collectors.partitioningBy(id -> cache.contains(Faculty.class, id)));
+                    List<Faculty> faculties = new ArrayList<>(facultyRepository.findAllById(cached.get(false)));
+                    cached.get(true).stream()
+                            .map(id -> entityManager.find(Faculty.class, id))
+                            .filter(Objects::nonNull)
+                            .forEach(faculties::add);
+                    return faculties.stream()
+                            .collect(Collectors.toMap(Faculty::getId,
+                                    faculty -> new VersionedDto<>(facultyMapper.toDto(faculty), faculty.getVersion())));
+                }),
+                windowMillis, maxBatchSize, meterRegistry);
+    }
+
+    private static TransactionTemplate readOnly(PlatformTransactionManager transactionManager) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+}
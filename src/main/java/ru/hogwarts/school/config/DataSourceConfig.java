@@ -0,0 +1,98 @@
+package ru.hogwarts.school.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import ru.hogwarts.school.datasource.ReadYourWrites;
+import ru.hogwarts.school.datasource.ReplicaAwareTransactionManager;
+import ru.hogwarts.school.datasource.ReadYourWritesFilter;
+import ru.hogwarts.school.datasource.ReplicaRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class DataSourceConfig {
+    @Value("${datasource.replicas.urls}")
+    private List<String> replicaUrls;
+    @Value("${datasource.replicas.username}")
+    private String replicaUsername;
+    @Value("${datasource.replicas.password}")
+    private String replicaPassword;
+    @Value("${datasource.replicas.connection-timeout}")
+    private long replicaConnectionTimeout;
+    @Value("${datasource.replicas.validation-timeout}")
+    private int validationTimeout;
+    @Value("${datasource.replicas.health-check-delay}")
+    private long healthCheckDelay;
+    @Value("${datasource.read-your-writes.window-millis}")
+    private long readYourWritesWindow;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites() {
+        return new ReadYourWrites(readYourWritesWindow);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadYourWrites readYourWrites) {
+        return new ReadYourWritesFilter(readYourWrites);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+                                                      DataSourceProperties properties,
+                                                      ReadYourWrites readYourWrites,
+                                                      MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            String name = "replica-" + replicas.size();
+            HikariDataSource replica = new HikariDataSource();
+            primaryDataSource.copyStateTo(replica);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setJdbcUrl(url);
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setPoolName(name);
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(replicaConnectionTimeout);
+            replica.setValidationTimeout(Math.min(replica.getValidationTimeout(), replicaConnectionTimeout));
+            replicas.put(name, replica);
+        }
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                readYourWrites, validationTimeout, meterRegistry);
+        routingDataSource.startHealthChecks(healthCheckDelay);
+        return routingDataSource;
+    }
+
+    @Bean
+    public JpaTransactionManager transactionManager(ReplicaRoutingDataSource routingDataSource,
+                                                   ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new ReplicaAwareTransactionManager(routingDataSource);
+        customizers.ifAvailable(transactionManagerCustomizers ->
+                transactionManagerCustomizers.customize(transactionManager));
+        return transactionManager;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
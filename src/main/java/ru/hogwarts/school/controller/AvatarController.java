@@ -1,15 +1,21 @@
 package ru.hogwarts.school.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import ru.hogwarts.school.model.Avatar;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.hogwarts.school.dto.AvatarResponseDto;
+import ru.hogwarts.school.dto.AvatarStorageStatusDto;
+import ru.hogwarts.school.service.AvatarBatchUploadService;
 import ru.hogwarts.school.service.AvatarService;
+import ru.hogwarts.school.service.AvatarStorageMigrationService;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -18,32 +24,64 @@ import java.util.List;
 public class AvatarController {
 
     private final AvatarService avatarService;
+    private final AvatarStorageMigrationService avatarStorageMigrationService;
+    private final AvatarBatchUploadService avatarBatchUploadService;
 
     @Operation(summary = "Загрузить аватар")
     @PostMapping(
             path = "/upload",
             consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<String> uploadAvatar(
-            @RequestPart("file") MultipartFile file) {
-        return ResponseEntity.ok(avatarService.saveAvatar(file));
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(required = false) Long studentId) {
+        return ResponseEntity.ok(avatarService.saveAvatar(file, studentId));
+    }
+
+    @Operation(summary = "Загрузить пакет аватаров")
+    @PostMapping(
+            path = "/upload/batch",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> uploadAvatars(@RequestPart("files") List<MultipartFile> files) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(avatarBatchUploadService.uploadAvatars(files));
     }
 
     @Operation(summary = "Скачать аватар из БД")
     @GetMapping("/{id}")
-    public ResponseEntity<byte[]> getAvatarById(@PathVariable Long id) {
-        return avatarService.getAvatarById(id);
+    public void getAvatarById(@PathVariable Long id,
+                              @RequestParam(required = false) Integer size,
+                              HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        avatarService.getAvatarById(id, size, request, response);
     }
 
     @Operation(summary = "Скачать аватар из директории")
     @GetMapping("/files/{fileName}")
-    public ResponseEntity<Resource> getAvatarFromFile(@PathVariable String fileName) {
-        return avatarService.getAvatarFromFile(fileName);
+    public void getAvatarFromFile(@PathVariable String fileName,
+                                  HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+        avatarService.getAvatarFromFile(fileName, request, response);
+    }
+
+    @Operation(summary = "Удалить аватар")
+    @DeleteMapping("/remove/{id}")
+    public ResponseEntity<String> removeAvatarById(@PathVariable Long id) {
+        avatarService.removeAvatarById(id);
+        return ResponseEntity.ok("Аватар успешно удалён");
+    }
+
+    @Operation(summary = "Получить состояние хранилища аватаров")
+    @GetMapping("/storage")
+    public ResponseEntity<AvatarStorageStatusDto> getStorageStatus() {
+        return ResponseEntity.ok(avatarStorageMigrationService.getStatus());
     }
 
     @Operation(summary = "Получить все аватары с пагинацией")
     @GetMapping("/all")
-    public ResponseEntity<List<Avatar>> getAllAvatar(@RequestParam("page") Integer pageNumber,
-                                                     @RequestParam("size") Integer pageSize) {
-        return ResponseEntity.ok(avatarService.getAllAvatar(pageNumber, pageSize));
+    public ResponseEntity<List<AvatarResponseDto>> getAllAvatar(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer size) {
+        return CursorPageResponses.toResponse(avatarService.getAllAvatar(cursor, size));
     }
 }
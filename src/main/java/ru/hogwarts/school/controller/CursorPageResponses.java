@@ -0,0 +1,24 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.http.ResponseEntity;
+import ru.hogwarts.school.dto.CursorPageDto;
+import ru.hogwarts.school.service.KeysetPagination;
+
+import java.util.List;
+
+final class CursorPageResponses {
+
+    private CursorPageResponses() {
+    }
+
+    static <T> ResponseEntity<List<T>> toResponse(CursorPageDto<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(KeysetPagination.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        if (page.totalElements() != null) {
+            response.header(KeysetPagination.TOTAL_COUNT_HEADER, String.valueOf(page.totalElements()));
+        }
+        return response.body(page.content());
+    }
+}
@@ -2,12 +2,23 @@ package ru.hogwarts.school.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.hogwarts.school.dto.FacultyPatchDto;
 import ru.hogwarts.school.dto.FacultyRequestDto;
 import ru.hogwarts.school.dto.FacultyResponseDto;
+import ru.hogwarts.school.dto.ImportReportDto;
+import ru.hogwarts.school.dto.StudentFacultyDto;
+import ru.hogwarts.school.dto.StudentRefDto;
+import ru.hogwarts.school.dto.VersionedDto;
 import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.ImportService;
+import ru.hogwarts.school.service.OptimisticRetry;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -15,6 +26,7 @@ import java.util.List;
 @RequestMapping("/faculty")
 public class FacultyController {
     private final FacultyService facultyService;
+    private final ImportService importService;
 
     @Operation(summary = "Добавить факультет")
     @PostMapping("/add")
@@ -22,10 +34,18 @@ public class FacultyController {
         return ResponseEntity.ok(facultyService.addFaculty(dto));
     }
 
+    @Operation(summary = "Импортировать факультеты из CSV или NDJSON")
+    @PostMapping(path = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportReportDto> importFaculties(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                           InputStream body) throws IOException {
+        return ResponseEntity.ok(importService.importFaculties(body, contentType));
+    }
+
     @Operation(summary = "Получить факультет по ИД")
     @GetMapping("/get/{id}")
     public ResponseEntity<FacultyResponseDto> getFacultyById(@PathVariable Long id) {
-        return ResponseEntity.ok(facultyService.getFacultyById(id));
+        VersionedDto<FacultyResponseDto> faculty = facultyService.getFacultyById(id);
+        return ResponseEntity.ok().eTag(String.valueOf(faculty.version())).body(faculty.value());
     }
 
     @Operation(summary = "Изменить факультет")
@@ -35,6 +55,16 @@ public class FacultyController {
         return ResponseEntity.ok(facultyService.changeFaculty(id, dto));
     }
 
+    @Operation(summary = "Частично изменить факультет")
+    @PatchMapping("/patch/{id}")
+    public ResponseEntity<FacultyResponseDto> patchFaculty(@PathVariable Long id,
+                                                           @RequestBody FacultyPatchDto dto,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                           String ifMatch) {
+        VersionedDto<FacultyResponseDto> patched = facultyService.patchFaculty(id, dto, OptimisticRetry.version(ifMatch));
+        return ResponseEntity.ok().eTag(String.valueOf(patched.version())).body(patched.value());
+    }
+
     @Operation(summary = "Удалить факультет")
     @DeleteMapping("/remove/{id}")
     public ResponseEntity<String> removeFacultyById(@PathVariable Long id) {
@@ -44,8 +74,10 @@ public class FacultyController {
 
     @Operation(summary = "Получить все факультеты по цвету")
     @GetMapping("/all/{color}")
-    public ResponseEntity<List<FacultyResponseDto>> getFacultiesByColor(@PathVariable String color) {
-        return ResponseEntity.ok(facultyService.getFacultiesByColor(color));
+    public ResponseEntity<List<FacultyResponseDto>> getFacultiesByColor(@PathVariable String color,
+                                                                        @RequestParam(required = false) String cursor,
+                                                                        @RequestParam(required = false) Integer size) {
+        return CursorPageResponses.toResponse(facultyService.getFacultiesByColor(color, cursor, size));
     }
 
     @Operation(summary = "Получить факультет по цвету или имени")
@@ -61,6 +93,12 @@ public class FacultyController {
         return ResponseEntity.ok(facultyService.getFacultyByStudentIdOrName(id, name));
     }
 
+    @Operation(summary = "Получить факультеты для списка студентов по ИД или имени")
+    @PostMapping("/by-students")
+    public ResponseEntity<List<StudentFacultyDto>> getFacultiesByStudents(@RequestBody List<StudentRefDto> students) {
+        return ResponseEntity.ok(facultyService.getFacultiesByStudents(students));
+    }
+
     @Operation(summary = "Получить самое длинное имя факультета")
     @GetMapping("/longest-name")
     public ResponseEntity<String> getLongestFacultyName() {
@@ -0,0 +1,27 @@
+package ru.hogwarts.school.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.hogwarts.school.dto.SearchResultDto;
+import ru.hogwarts.school.service.SearchService;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/search")
+public class SearchController {
+    private final SearchService searchService;
+
+    @Operation(summary = "Найти студентов и факультеты с учётом опечаток")
+    @GetMapping
+    public ResponseEntity<List<SearchResultDto>> search(@RequestParam("q") String query,
+                                                        @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(searchService.search(query, limit));
+    }
+}
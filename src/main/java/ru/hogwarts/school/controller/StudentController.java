@@ -2,12 +2,30 @@ package ru.hogwarts.school.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.hogwarts.school.dto.BulkResultDto;
+import ru.hogwarts.school.dto.ImportReportDto;
+import ru.hogwarts.school.dto.StudentFilterDto;
+import ru.hogwarts.school.dto.StudentMoveDto;
+import ru.hogwarts.school.dto.StudentPatchDto;
+import ru.hogwarts.school.dto.StudentReageDto;
 import ru.hogwarts.school.dto.StudentRequestDto;
 import ru.hogwarts.school.dto.StudentResponseDto;
+import ru.hogwarts.school.dto.StudentStatisticsDto;
+import ru.hogwarts.school.dto.StudentStatsDto;
+import ru.hogwarts.school.dto.VersionedDto;
+import ru.hogwarts.school.service.ImportService;
+import ru.hogwarts.school.service.OptimisticRetry;
+import ru.hogwarts.school.service.StudentBulkService;
+import ru.hogwarts.school.service.StudentExportService;
 import ru.hogwarts.school.service.StudentService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -15,6 +33,9 @@ import java.util.List;
 @RequestMapping("/student")
 public class StudentController {
     private final StudentService studentService;
+    private final ImportService importService;
+    private final StudentExportService studentExportService;
+    private final StudentBulkService studentBulkService;
 
     @Operation(summary = "Добавить студента")
     @PostMapping("/add")
@@ -22,10 +43,27 @@ public class StudentController {
         return ResponseEntity.ok(studentService.addStudent(dto));
     }
 
+    @Operation(summary = "Импортировать студентов из CSV или NDJSON")
+    @PostMapping(path = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportReportDto> importStudents(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                          InputStream body) throws IOException {
+        return ResponseEntity.ok(importService.importStudents(body, contentType));
+    }
+
+    @Operation(summary = "Выгрузить всех студентов в CSV или NDJSON")
+    @GetMapping(path = "/export", produces = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportStudents(@RequestParam(defaultValue = "ndjson") String format) {
+        MediaType mediaType = studentExportService.mediaType(format);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .body(studentExportService.exportStudents(mediaType));
+    }
+
     @Operation(summary = "Получить студента по ИД")
     @GetMapping("/get/{id}")
     public ResponseEntity<StudentResponseDto> getStudentById(@PathVariable Long id) {
-        return ResponseEntity.ok(studentService.getStudentById(id));
+        VersionedDto<StudentResponseDto> student = studentService.getStudentById(id);
+        return ResponseEntity.ok().eTag(String.valueOf(student.version())).body(student.value());
     }
 
     @Operation(summary = "Изменить студента")
@@ -35,6 +73,34 @@ public class StudentController {
         return ResponseEntity.ok(studentService.changeStudentById(id, dto));
     }
 
+    @Operation(summary = "Частично изменить студента")
+    @PatchMapping("/patch/{id}")
+    public ResponseEntity<StudentResponseDto> patchStudent(@PathVariable Long id,
+                                                           @RequestBody StudentPatchDto dto,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                           String ifMatch) {
+        VersionedDto<StudentResponseDto> patched = studentService.patchStudent(id, dto, OptimisticRetry.version(ifMatch));
+        return ResponseEntity.ok().eTag(String.valueOf(patched.version())).body(patched.value());
+    }
+
+    @Operation(summary = "Перевести отобранных студентов на другой факультет")
+    @PostMapping("/bulk/move")
+    public ResponseEntity<BulkResultDto> moveStudents(@RequestBody StudentMoveDto dto) {
+        return ResponseEntity.ok(studentBulkService.moveStudents(dto));
+    }
+
+    @Operation(summary = "Изменить возраст отобранных студентов")
+    @PostMapping("/bulk/age")
+    public ResponseEntity<BulkResultDto> reageStudents(@RequestBody StudentReageDto dto) {
+        return ResponseEntity.ok(studentBulkService.reageStudents(dto));
+    }
+
+    @Operation(summary = "Удалить отобранных студентов вместе с аватарами")
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkResultDto> deleteStudents(@RequestBody StudentFilterDto filter) {
+        return ResponseEntity.ok(studentBulkService.deleteStudents(filter));
+    }
+
     @Operation(summary = "Удалить студента")
     @DeleteMapping("/remove/{id}")
     public ResponseEntity<String> removeStudentById(@PathVariable Long id) {
@@ -44,21 +110,27 @@ public class StudentController {
 
     @Operation(summary = "Получить всх студентов по возрасту")
     @GetMapping("/all/{age}")
-    public ResponseEntity<List<StudentResponseDto>> getStudentsByAge(@PathVariable int age) {
-        return ResponseEntity.ok(studentService.getStudentsByAge(age));
+    public ResponseEntity<List<StudentResponseDto>> getStudentsByAge(@PathVariable int age,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer size) {
+        return CursorPageResponses.toResponse(studentService.getStudentsByAge(age, cursor, size));
     }
 
     @Operation(summary = "Получить всх студентов в промежутке по возрасту")
     @GetMapping("/allBetween/{minAge}/{maxAge}")
     public ResponseEntity<List<StudentResponseDto>> getStudentsByAgeBetween(@PathVariable int minAge,
-                                                                            @PathVariable int maxAge) {
-        return ResponseEntity.ok(studentService.getStudentsByAgeBetween(minAge, maxAge));
+                                                                            @PathVariable int maxAge,
+                                                                            @RequestParam(required = false) String cursor,
+                                                                            @RequestParam(required = false) Integer size) {
+        return CursorPageResponses.toResponse(studentService.getStudentsByAgeBetween(minAge, maxAge, cursor, size));
     }
 
     @Operation(summary = "Получить всех студентов по ИД факультета")
     @GetMapping("/students/{id}")
-    public ResponseEntity<List<StudentResponseDto>> getStudentsByFacultyId(@PathVariable Long id) {
-        return ResponseEntity.ok(studentService.getStudentsByFacultyId(id));
+    public ResponseEntity<List<StudentResponseDto>> getStudentsByFacultyId(@PathVariable Long id,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           @RequestParam(required = false) Integer size) {
+        return CursorPageResponses.toResponse(studentService.getStudentsByFacultyId(id, cursor, size));
     }
 
     @Operation(summary = "Получить количество всех студентов")
@@ -67,6 +139,24 @@ public class StudentController {
         return ResponseEntity.ok(studentService.getStudentCount());
     }
 
+    @Operation(summary = "Получить количество студентов в промежутке по возрасту")
+    @GetMapping("/students/count/{minAge}/{maxAge}")
+    public ResponseEntity<Long> getStudentCountByAgeBetween(@PathVariable int minAge, @PathVariable int maxAge) {
+        return ResponseEntity.ok(studentService.getStudentCountByAgeBetween(minAge, maxAge));
+    }
+
+    @Operation(summary = "Получить распределение возраста студентов по факультетам")
+    @GetMapping("/stats")
+    public ResponseEntity<StudentStatsDto> getStudentStats() {
+        return ResponseEntity.ok(studentService.getStudentStats());
+    }
+
+    @Operation(summary = "Получить статистику по возрасту студентов")
+    @GetMapping("/students/statistics")
+    public ResponseEntity<StudentStatisticsDto> getStudentStatistics() {
+        return ResponseEntity.ok(studentService.getStudentStatistics());
+    }
+
     @Operation(summary = "Получить средний возраст студентов")
     @GetMapping("/students/average-age")
     public ResponseEntity<Integer> getAverageAge() {
@@ -85,6 +175,13 @@ public class StudentController {
         return ResponseEntity.ok(studentService.getLastFiveStudents());
     }
 
+    @Operation(summary = "Найти имена студентов по началу имени")
+    @GetMapping("/names")
+    public ResponseEntity<List<String>> getStudentNamesByPrefix(@RequestParam(defaultValue = "") String prefix,
+                                                                @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(studentService.getStudentNamesByPrefix(prefix, limit));
+    }
+
     @Operation(summary = "Получить имена студентов,начинающихся на букву \"А\"")
     @GetMapping("/names-starting-with-A")
     public ResponseEntity<List<String>> getStudentNamesStartingWithA() {
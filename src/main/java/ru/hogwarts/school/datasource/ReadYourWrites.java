@@ -0,0 +1,50 @@
+package ru.hogwarts.school.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+public class ReadYourWrites {
+    private static final int MAX_CLIENTS = 10_000;
+
+    private final long windowMillis;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final ThreadLocal<Boolean> pinned = new ThreadLocal<>();
+
+    public ReadYourWrites(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public boolean isEnabled() {
+        return windowMillis > 0;
+    }
+
+    public void recordWrite(final String client) {
+        if (!isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        lastWrites.put(client, now);
+        if (lastWrites.size() > MAX_CLIENTS) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt > windowMillis);
+        }
+    }
+
+    public void pin(final String client) {
+        Long writtenAt = isEnabled() ? lastWrites.get(client) : null;
+        if (writtenAt != null && System.currentTimeMillis() - writtenAt <= windowMillis) {
+            log.debug("Client {} wrote {} ms ago, reading from primary", client, System.currentTimeMillis() - writtenAt);
+            pinned.set(Boolean.TRUE);
+        }
+    }
+
+    public boolean isPinned() {
+        return pinned.get() != null;
+    }
+
+    public void release() {
+        pinned.remove();
+    }
+}
@@ -0,0 +1,50 @@
+package ru.hogwarts.school.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    public static final String CLIENT_HEADER = "X-Client-Id";
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    private static final Set<String> READ_ONLY_PATHS = Set.of("/faculty/by-students");
+
+    private final ReadYourWrites readYourWrites;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !readYourWrites.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String client = clientOf(request);
+        readYourWrites.pin(client);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            readYourWrites.release();
+        }
+        if (isWrite(request) && response.getStatus() < 400) {
+            readYourWrites.recordWrite(client);
+        }
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        return !READ_METHODS.contains(request.getMethod())
+                && !READ_ONLY_PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    private static String clientOf(HttpServletRequest request) {
+        String client = request.getHeader(CLIENT_HEADER);
+        return client == null || client.isBlank() ? request.getRemoteAddr() : client;
+    }
+}
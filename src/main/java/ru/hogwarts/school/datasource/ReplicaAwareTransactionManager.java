@@ -0,0 +1,27 @@
+package ru.hogwarts.school.datasource;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class ReplicaAwareTransactionManager extends JpaTransactionManager {
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    public ReplicaAwareTransactionManager(ReplicaRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        boolean preBound = TransactionSynchronizationManager.hasResource(obtainEntityManagerFactory());
+        super.doBegin(transaction, definition);
+        if (!preBound && definition.isReadOnly() && routingDataSource.readsFromReplicas()) {
+            EntityManagerHolder holder =
+                    (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+            holder.getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+        }
+    }
+}
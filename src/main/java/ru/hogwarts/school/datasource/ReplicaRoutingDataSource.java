@@ -0,0 +1,162 @@
+package ru.hogwarts.school.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWrites readYourWrites;
+    private final int validationTimeout;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryConnections;
+    private final Counter fallbacks;
+    private ScheduledExecutorService healthChecks;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    ReadYourWrites readYourWrites, int validationTimeout,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream()
+                .map(entry -> new Replica(entry.getKey(), entry.getValue(),
+                        connections(meterRegistry, entry.getKey())))
+                .toList();
+        this.readYourWrites = readYourWrites;
+        this.validationTimeout = validationTimeout;
+        this.primaryConnections = connections(meterRegistry, "primary");
+        this.fallbacks = Counter.builder("datasource.routing.fallbacks")
+                .description("Read-only connections served by the primary because no replica was available")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replicas.healthy", this.replicas,
+                        list -> list.stream().filter(replica -> replica.healthy).count())
+                .description("Replicas that passed the last health check")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || !readsFromReplicas()) {
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+
+        Replica replica = nextHealthy();
+        while (replica != null) {
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.connections.increment();
+                return connection;
+            } catch (SQLException e) {
+                log.warn("Replica {} is unavailable, marking it down", replica.name, e);
+                replica.healthy = false;
+                replica = nextHealthy();
+            }
+        }
+
+        log.debug("No healthy replica, reading from primary");
+        fallbacks.increment();
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    public boolean readsFromReplicas() {
+        return !replicas.isEmpty() && !readYourWrites.isPinned();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Routing datasource uses the credentials of its pools");
+    }
+
+    public synchronized void startHealthChecks(long delayMillis) {
+        if (replicas.isEmpty() || healthChecks != null) {
+            return;
+        }
+        healthChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecks.scheduleWithFixedDelay(this::checkReplicas, delayMillis, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy = isValid(replica);
+            if (healthy != replica.healthy) {
+                log.info("Replica {} is {}", replica.name, healthy ? "back up" : "down");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        synchronized (this) {
+            if (healthChecks != null) {
+                healthChecks.shutdownNow();
+            }
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private Replica nextHealthy() {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private boolean isValid(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            return connection.isValid(validationTimeout);
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Health check of replica {} failed", replica.name, e);
+            return false;
+        }
+    }
+
+    private static Counter connections(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Connections handed out by the read/write routing datasource")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final Counter connections;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource, Counter connections) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.connections = connections;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotNull;
+
+public record AgeDistributionDto(
+        @JsonProperty("facultyId")
+        Long facultyId,
+        @JsonProperty("facultyName")
+        String facultyName,
+        @NotNull
+        @JsonProperty("count")
+        Long count,
+        @JsonProperty("mean")
+        Double mean,
+        @JsonProperty("min")
+        Integer min,
+        @JsonProperty("max")
+        Integer max,
+        @JsonProperty("stddev")
+        Double stddev,
+        @JsonProperty("p50")
+        Integer p50,
+        @JsonProperty("p90")
+        Integer p90,
+        @JsonProperty("p99")
+        Integer p99
+) {
+}
@@ -0,0 +1,23 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public record AvatarResponseDto(
+        @NotNull
+        @JsonProperty("id")
+        Long id,
+        @NotNull
+        @JsonProperty("fileSize")
+        Long fileSize,
+        @NotBlank
+        @JsonProperty("mediaType")
+        String mediaType,
+        @JsonProperty("studentId")
+        Long studentId,
+        @NotBlank
+        @JsonProperty("previewUrl")
+        String previewUrl
+) {
+}
@@ -0,0 +1,27 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotNull;
+import ru.hogwarts.school.model.StorageTier;
+
+public record AvatarStorageStatusDto(
+        @NotNull
+        @JsonProperty("tier")
+        StorageTier tier,
+        @NotNull
+        @JsonProperty("migrationEnabled")
+        Boolean migrationEnabled,
+        @NotNull
+        @JsonProperty("databaseBlobs")
+        Long databaseBlobs,
+        @NotNull
+        @JsonProperty("fileSystemBlobs")
+        Long fileSystemBlobs,
+        @NotNull
+        @JsonProperty("migrated")
+        Long migrated,
+        @NotNull
+        @JsonProperty("failed")
+        Long failed
+) {
+}
@@ -0,0 +1,20 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public record AvatarUploadResultDto(
+        @NotBlank
+        @JsonProperty("fileName")
+        String fileName,
+        @JsonProperty("studentId")
+        Long studentId,
+        @NotNull
+        @JsonProperty("success")
+        Boolean success,
+        @NotBlank
+        @JsonProperty("message")
+        String message
+) {
+}
@@ -0,0 +1,11 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record BulkResultDto(
+        @JsonProperty("students")
+        long students,
+        @JsonProperty("avatars")
+        long avatars
+) {
+}
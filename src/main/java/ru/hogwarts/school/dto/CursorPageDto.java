@@ -0,0 +1,20 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record CursorPageDto<T>(
+        @NotNull
+        @JsonProperty("content")
+        List<T> content,
+        @JsonProperty("nextCursor")
+        String nextCursor,
+        @JsonProperty("totalElements")
+        Long totalElements
+) {
+    public CursorPageDto(List<T> content, String nextCursor) {
+        this(content, nextCursor, null);
+    }
+}
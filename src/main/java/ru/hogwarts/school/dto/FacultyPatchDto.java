@@ -0,0 +1,11 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record FacultyPatchDto(
+        @JsonProperty("name")
+        String name,
+        @JsonProperty("color")
+        String color
+) {
+}
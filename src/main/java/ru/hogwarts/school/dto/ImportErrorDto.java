@@ -0,0 +1,15 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public record ImportErrorDto(
+        @NotNull
+        @JsonProperty("line")
+        Long line,
+        @NotBlank
+        @JsonProperty("message")
+        String message
+) {
+}
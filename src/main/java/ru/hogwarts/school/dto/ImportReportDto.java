@@ -0,0 +1,31 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record ImportReportDto(
+        @NotNull
+        @JsonProperty("total")
+        Long total,
+        @NotNull
+        @JsonProperty("imported")
+        Long imported,
+        @NotNull
+        @JsonProperty("duplicates")
+        Long duplicates,
+        @NotNull
+        @JsonProperty("failed")
+        Long failed,
+        @NotNull
+        @JsonProperty("elapsedMillis")
+        Long elapsedMillis,
+        @NotNull
+        @JsonProperty("rowsPerSecond")
+        Double rowsPerSecond,
+        @NotNull
+        @JsonProperty("errors")
+        List<ImportErrorDto> errors
+) {
+}
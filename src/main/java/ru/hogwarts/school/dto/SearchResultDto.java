@@ -0,0 +1,28 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public record SearchResultDto(
+        @NotNull
+        @JsonProperty("type")
+        Type type,
+        @NotNull
+        @JsonProperty("id")
+        Long id,
+        @NotBlank
+        @JsonProperty("field")
+        String field,
+        @NotBlank
+        @JsonProperty("value")
+        String value,
+        @NotNull
+        @JsonProperty("score")
+        Double score
+) {
+    public enum Type {
+        STUDENT,
+        FACULTY
+    }
+}
@@ -0,0 +1,13 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record StudentFacultyDto(
+        @JsonProperty("studentId")
+        Long studentId,
+        @JsonProperty("studentName")
+        String studentName,
+        @JsonProperty("faculty")
+        FacultyResponseDto faculty
+) {
+}
@@ -0,0 +1,17 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public record StudentFilterDto(
+        @JsonProperty("facultyId")
+        Long facultyId,
+        @JsonProperty("minAge")
+        Integer minAge,
+        @JsonProperty("maxAge")
+        Integer maxAge,
+        @JsonProperty("ids")
+        List<Long> ids
+) {
+}
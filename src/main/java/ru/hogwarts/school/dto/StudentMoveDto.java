@@ -0,0 +1,14 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotNull;
+
+public record StudentMoveDto(
+        @NotNull
+        @JsonProperty("filter")
+        StudentFilterDto filter,
+        @NotNull
+        @JsonProperty("facultyId")
+        Long facultyId
+) {
+}
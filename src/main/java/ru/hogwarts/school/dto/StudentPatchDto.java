@@ -0,0 +1,11 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record StudentPatchDto(
+        @JsonProperty("name")
+        String name,
+        @JsonProperty("age")
+        Integer age
+) {
+}
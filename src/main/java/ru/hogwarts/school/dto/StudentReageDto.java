@@ -0,0 +1,14 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotNull;
+
+public record StudentReageDto(
+        @NotNull
+        @JsonProperty("filter")
+        StudentFilterDto filter,
+        @NotNull
+        @JsonProperty("delta")
+        Integer delta
+) {
+}
@@ -0,0 +1,11 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record StudentRefDto(
+        @JsonProperty("id")
+        Long id,
+        @JsonProperty("name")
+        String name
+) {
+}
@@ -0,0 +1,17 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotNull;
+
+public record StudentStatisticsDto(
+        @NotNull
+        @JsonProperty("count")
+        Long count,
+        @JsonProperty("averageAge")
+        Double averageAge,
+        @JsonProperty("minAge")
+        Integer minAge,
+        @JsonProperty("maxAge")
+        Integer maxAge
+) {
+}
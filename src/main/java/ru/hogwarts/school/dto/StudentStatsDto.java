@@ -0,0 +1,16 @@
+package ru.hogwarts.school.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record StudentStatsDto(
+        @NotNull
+        @JsonProperty("overall")
+        AgeDistributionDto overall,
+        @NotNull
+        @JsonProperty("faculties")
+        List<AgeDistributionDto> faculties
+) {
+}
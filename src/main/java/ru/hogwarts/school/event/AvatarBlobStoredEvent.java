@@ -0,0 +1,6 @@
+package ru.hogwarts.school.event;
+
+public record AvatarBlobStoredEvent(
+        Long blobId
+) {
+}
@@ -0,0 +1,10 @@
+package ru.hogwarts.school.event;
+
+public record FacultyChangedEvent(
+        Long id,
+        String oldName,
+        String oldColor,
+        String newName,
+        String newColor
+) {
+}
@@ -0,0 +1,10 @@
+package ru.hogwarts.school.event;
+
+public record StudentChangedEvent(
+        Long id,
+        String oldName,
+        Integer oldAge,
+        String newName,
+        Integer newAge
+) {
+}
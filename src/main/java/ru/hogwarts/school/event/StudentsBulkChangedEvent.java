@@ -0,0 +1,7 @@
+package ru.hogwarts.school.event;
+
+public record StudentsBulkChangedEvent(
+        String operation,
+        long affected
+) {
+}
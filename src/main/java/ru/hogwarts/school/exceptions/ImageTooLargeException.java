@@ -0,0 +1,7 @@
+package ru.hogwarts.school.exceptions;
+
+public class ImageTooLargeException extends RuntimeException {
+    public ImageTooLargeException(String message) {
+        super(message);
+    }
+}
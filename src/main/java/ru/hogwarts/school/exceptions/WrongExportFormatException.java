@@ -0,0 +1,7 @@
+package ru.hogwarts.school.exceptions;
+
+public class WrongExportFormatException extends RuntimeException {
+    public WrongExportFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.hogwarts.school.exceptions;
+
+public class WrongPageCursorException extends RuntimeException {
+    public WrongPageCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.hogwarts.school.exceptions;
+
+public class WrongPreviewSizeException extends RuntimeException {
+    public WrongPreviewSizeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.hogwarts.school.exceptions;
+
+public class WrongStudentFilterException extends RuntimeException {
+    public WrongStudentFilterException(String message) {
+        super(message);
+    }
+}
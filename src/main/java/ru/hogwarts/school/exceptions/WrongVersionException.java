@@ -0,0 +1,7 @@
+package ru.hogwarts.school.exceptions;
+
+public class WrongVersionException extends RuntimeException {
+    public WrongVersionException(String message) {
+        super(message);
+    }
+}
@@ -6,8 +6,10 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import ru.hogwarts.school.exceptions.FacultyNotFoundException;
 import ru.hogwarts.school.exceptions.FailedUploadFileException;
+import ru.hogwarts.school.exceptions.ImageTooLargeException;
 import ru.hogwarts.school.exceptions.InvalidFacultySearchException;
 import ru.hogwarts.school.exceptions.StudentNotFoundException;
+import ru.hogwarts.school.exceptions.VersionConflictException;
 
 @ControllerAdvice
 public class Handler {
@@ -21,6 +23,10 @@ public class Handler {
             status = HttpStatus.NOT_FOUND;
         } else if (e instanceof InvalidFacultySearchException) {
             status = HttpStatus.UNPROCESSABLE_ENTITY;
+        } else if (e instanceof VersionConflictException) {
+            status = HttpStatus.CONFLICT;
+        } else if (e instanceof ImageTooLargeException) {
+            status = HttpStatus.PAYLOAD_TOO_LARGE;
         } else if (e instanceof FailedUploadFileException) {
             status = HttpStatus.INTERNAL_SERVER_ERROR;
             message = "Ошибка загрузки файла";
@@ -1,12 +1,13 @@
 package ru.hogwarts.school.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Getter
 @Setter
 @Entity
-@ToString(exclude = "student")
+@ToString(exclude = {"student", "blob"})
 @Table(name = "avatars")
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,10 +19,11 @@ public class Avatar extends BaseEntity {
     private long fileSize;
     @Column
     private String mediaType;
-    @Lob
-    @Column
-    private byte[] data;
-    @OneToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blob_id")
+    @JsonIgnore
+    private AvatarBlob blob;
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id")
     private Student student;
 }
@@ -0,0 +1,35 @@
+package ru.hogwarts.school.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.sql.Blob;
+
+@Getter
+@Setter
+@Entity
+@ToString(exclude = "data")
+@Table(name = "avatar_blobs", indexes = @Index(name = "avatar_blobs_storage_index", columnList = "storage, id"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvatarBlob extends BaseEntity {
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String hash;
+    @Column
+    private String filePath;
+    @Column
+    private long fileSize;
+    @Column
+    private String mediaType;
+    @Column
+    private int refCount;
+    @Lob
+    @Column
+    @JsonIgnore
+    private Blob data;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StorageTier storage;
+}
@@ -0,0 +1,28 @@
+package ru.hogwarts.school.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+
+@Getter
+@Setter
+@Entity
+@ToString(exclude = {"blob", "data"})
+@Table(name = "avatar_previews",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"blob_id", "width"}))
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvatarPreview extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blob_id", nullable = false)
+    @JsonIgnore
+    private AvatarBlob blob;
+    @Column
+    private int width;
+    @Column
+    private String mediaType;
+    @Column
+    @JsonIgnore
+    private byte[] data;
+}
@@ -14,7 +14,11 @@ import lombok.ToString;
 public class BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     @Column(name = "id", nullable = false)
     private Long id;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
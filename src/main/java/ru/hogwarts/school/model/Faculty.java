@@ -2,11 +2,15 @@ package ru.hogwarts.school.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 import java.util.Objects;
@@ -14,11 +18,15 @@ import java.util.Objects;
 @Getter
 @Setter
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "faculties")
 @ToString(exclude = "students")
-@Table(name = "faculties")
+@Table(name = "faculties", uniqueConstraints = @UniqueConstraint(name = Faculty.NAME_COLOR_UNIQUE,
+        columnNames = {"name", "color"}))
 @NoArgsConstructor
 @AllArgsConstructor
 public class Faculty extends BaseEntity {
+    public static final String NAME_COLOR_UNIQUE = "faculties_name_color_unique";
 
     @Column
     @JsonProperty("name")
@@ -0,0 +1,6 @@
+package ru.hogwarts.school.model;
+
+public enum StorageTier {
+    DATABASE,
+    FILE_SYSTEM
+}
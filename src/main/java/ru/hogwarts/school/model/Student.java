@@ -10,10 +10,12 @@ import java.util.Objects;
 @Setter
 @Entity
 @ToString(exclude = "faculty")
-@Table(name = "students")
+@Table(name = "students", uniqueConstraints = @UniqueConstraint(name = Student.NAME_AGE_UNIQUE,
+        columnNames = {"name", "age"}))
 @NoArgsConstructor
 @AllArgsConstructor
 public class Student extends BaseEntity {
+    public static final String NAME_AGE_UNIQUE = "students_name_age_unique";
 
     @Column
     @JsonProperty("name")
@@ -21,11 +23,9 @@ public class Student extends BaseEntity {
     @Column
     @JsonProperty("age")
     private int age;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "faculty_id")
     private Faculty faculty;
-    @OneToOne(mappedBy = "student")
-    private Avatar avatar;
 
     @Override
     public boolean equals(Object o) {
@@ -0,0 +1,33 @@
+package ru.hogwarts.school.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.hogwarts.school.model.AvatarBlob;
+import ru.hogwarts.school.model.StorageTier;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AvatarBlobRepository extends JpaRepository<AvatarBlob, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<AvatarBlob> findByHash(String hash);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM AvatarBlob b WHERE b.id = :id")
+    Optional<AvatarBlob> findLockedById(@Param("id") Long id);
+
+    @Query("SELECT b.id FROM AvatarBlob b WHERE b.storage = :storage AND b.id > :afterId ORDER BY b.id")
+    List<Long> findIdsByStorage(@Param("storage") StorageTier storage, @Param("afterId") Long afterId, Pageable pageable);
+
+    long countByStorage(StorageTier storage);
+
+    @Query(value = "SELECT lo_unlink(data) FROM avatar_blobs WHERE id = :id AND data IS NOT NULL", nativeQuery = true)
+    List<Integer> unlinkData(@Param("id") Long id);
+}
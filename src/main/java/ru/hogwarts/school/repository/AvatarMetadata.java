@@ -0,0 +1,12 @@
+package ru.hogwarts.school.repository;
+
+public interface AvatarMetadata {
+
+    Long getId();
+
+    long getFileSize();
+
+    String getMediaType();
+
+    Long getStudentId();
+}
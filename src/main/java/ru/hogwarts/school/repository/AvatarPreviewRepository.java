@@ -0,0 +1,20 @@
+package ru.hogwarts.school.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.hogwarts.school.model.AvatarPreview;
+
+import java.util.Optional;
+
+@Repository
+public interface AvatarPreviewRepository extends JpaRepository<AvatarPreview, Long> {
+
+    Optional<AvatarPreview> findByBlobIdAndWidth(Long blobId, int width);
+
+    @Modifying
+    @Query("DELETE FROM AvatarPreview p WHERE p.blob.id = :blobId")
+    void deleteAllByBlobId(@Param("blobId") Long blobId);
+}
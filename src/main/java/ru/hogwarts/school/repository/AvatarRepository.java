@@ -1,9 +1,24 @@
 package ru.hogwarts.school.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.hogwarts.school.model.Avatar;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface AvatarRepository extends JpaRepository<Avatar, Long> {
+
+    Optional<Avatar> findByStudentId(Long id);
+
+    @Query("SELECT a FROM Avatar a JOIN FETCH a.blob WHERE a.id = :id")
+    Optional<Avatar> findWithBlobById(@Param("id") Long id);
+
+    @Query("SELECT a.id AS id, a.fileSize AS fileSize, a.mediaType AS mediaType, s.id AS studentId " +
+            "FROM Avatar a LEFT JOIN a.student s WHERE a.id > :afterId ORDER BY a.id")
+    List<AvatarMetadata> findAllMetadata(@Param("afterId") long afterId, Pageable pageable);
 }
@@ -1,25 +1,59 @@
 package ru.hogwarts.school.repository;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.hogwarts.school.model.Faculty;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+
 @Repository
 public interface FacultyRepository extends JpaRepository<Faculty, Long> {
-
-    boolean existsFacultyByNameAndColor(String name, String color);
-
-    List<Faculty> findAllByColor(String color);
-
+    String QUERY_CACHE_REGION = "faculty-queries";
+
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    @Query("SELECT f FROM Faculty f WHERE f.color = :color AND f.id > :afterId ORDER BY f.id")
+    List<Faculty> findAllByColor(@Param("color") String color, @Param("afterId") long afterId, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     @Query("SELECT f FROM Faculty f WHERE LOWER(f.color) = LOWER(:color) OR LOWER(f.name) = LOWER(:name)")
     List<Faculty> findWithParam(@Param("color") String color, @Param("name") String name);
 
+    @Query("SELECT f.name, f.color FROM Faculty f")
+    List<Object[]> findAllNamesAndColors();
+
+    @Query("SELECT f.name, f.color FROM Faculty f WHERE f.name IN :names")
+    List<Object[]> findNameAndColorByNameIn(@Param("names") Collection<String> names);
+
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     Optional<Faculty> findByStudentsId(Long id);
 
+    @Query("SELECT s.id, s.name, f FROM Student s JOIN s.faculty f " +
+            "WHERE s.id IN :ids OR s.name IN :names ORDER BY s.id")
+    List<Object[]> findByStudentsIdInOrStudentsNameIn(@Param("ids") Collection<Long> ids,
+                                                      @Param("names") Collection<String> names);
+
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     Optional<Faculty> findByStudentsName(String name);
 }
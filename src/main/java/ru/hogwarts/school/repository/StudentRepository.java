@@ -1,22 +1,70 @@
 package ru.hogwarts.school.repository;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.hogwarts.school.dto.StudentResponseDto;
 import ru.hogwarts.school.model.Student;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Long> {
 
-    boolean existsByNameAndAge(String name, int age);
+    @Query("SELECT new ru.hogwarts.school.dto.StudentResponseDto(s.id, s.name, s.age), s.version " +
+            "FROM Student s WHERE s.id IN :ids")
+    List<Object[]> findVersionedDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new ru.hogwarts.school.dto.StudentResponseDto(s.id, s.name, s.age) FROM Student s " +
+            "WHERE s.age = :age AND s.id > :afterId ORDER BY s.id")
+    List<StudentResponseDto> findAllByAge(@Param("age") int age, @Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT new ru.hogwarts.school.dto.StudentResponseDto(s.id, s.name, s.age) FROM Student s " +
+            "WHERE s.age BETWEEN :minAge AND :maxAge AND s.age >= :afterAge " +
+            "AND (s.age > :afterAge OR s.id > :afterId) ORDER BY s.age, s.id")
+    List<StudentResponseDto> findByAgeBetween(@Param("minAge") int minAge, @Param("maxAge") int maxAge,
+                                              @Param("afterAge") int afterAge, @Param("afterId") long afterId,
+                                              Pageable pageable);
+
+    @Query("SELECT new ru.hogwarts.school.dto.StudentResponseDto(s.id, s.name, s.age) FROM Student s " +
+            "WHERE s.faculty.id = :id AND s.id > :afterId ORDER BY s.id")
+    List<StudentResponseDto> findAllByFaculty_Id(@Param("id") Long id, @Param("afterId") long afterId,
+                                                 Pageable pageable);
+
+    @Query("SELECT s.name, s.age FROM Student s WHERE s.name IN :names")
+    List<Object[]> findNameAndAgeByNameIn(@Param("names") Collection<String> names);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM Student s ORDER BY s.id")
+    Stream<Student> streamAll();
+
+    @Query("SELECT s.age, count(s) FROM Student s GROUP BY s.age")
+    List<Object[]> countByAge();
+
+    @Query("SELECT f.id, f.name, s.age, count(s) FROM Student s LEFT JOIN s.faculty f " +
+            "GROUP BY f.id, f.name, s.age ORDER BY f.id")
+    List<Object[]> countByFacultyAndAge();
 
-    List<Student> findAllByAge(int age);
+    @Query("SELECT s.id, s.name FROM Student s")
+    List<Object[]> findAllIdsAndNames();
 
-    List<Student> findByAgeBetween(int minAge, int maxAge);
+    @Query("SELECT s.name FROM Student s")
+    List<String> findAllNames();
 
-    List<Student> findAllByFaculty_Id(Long id);
+    @Query("SELECT s.name, s.age FROM Student s")
+    List<Object[]> findAllNamesAndAges();
 
     @Query(value = "select count(*) from students", nativeQuery = true)
     Integer getStudentCount();
@@ -24,6 +72,6 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     @Query(value = "select avg(age) from students", nativeQuery = true)
     Integer getAverageAge();
 
-    @Query(value = "select * from students order by id desc limit 5", nativeQuery = true)
-    List<Student> getLastFiveStudents();
+    @Query("SELECT new ru.hogwarts.school.dto.StudentResponseDto(s.id, s.name, s.age) FROM Student s ORDER BY s.id DESC")
+    List<StudentResponseDto> getLastStudents(Pageable pageable);
 }
@@ -0,0 +1,66 @@
+package ru.hogwarts.school.service;
+
+import ru.hogwarts.school.dto.AgeDistributionDto;
+
+import java.util.Arrays;
+
+public class AgeHistogram {
+    private static final int INITIAL_AGES = 128;
+
+    private long[] counts = new long[INITIAL_AGES];
+    private long total;
+
+    public void add(final int age, final long count) {
+        if (age < 0 || count <= 0) {
+            return;
+        }
+        if (age >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(counts.length * 2, age + 1));
+        }
+        counts[age] += count;
+        total += count;
+    }
+
+    public AgeHistogram merge(final AgeHistogram other) {
+        for (int age = 0; age < other.counts.length; age++) {
+            add(age, other.counts[age]);
+        }
+        return this;
+    }
+
+    public AgeDistributionDto toDto(final Long facultyId, final String facultyName) {
+        if (total == 0) {
+            return new AgeDistributionDto(facultyId, facultyName, 0L,
+                    null, null, null, null, null, null, null);
+        }
+        double sum = 0;
+        int min = -1;
+        int max = -1;
+        for (int age = 0; age < counts.length; age++) {
+            if (counts[age] > 0) {
+                sum += (double) age * counts[age];
+                min = min < 0 ? age : min;
+                max = age;
+            }
+        }
+        double mean = sum / total;
+        double squares = 0;
+        for (int age = min; age <= max; age++) {
+            squares += counts[age] * (age - mean) * (age - mean);
+        }
+        return new AgeDistributionDto(facultyId, facultyName, total, mean, min, max,
+                Math.sqrt(squares / total), percentile(0.5), percentile(0.9), percentile(0.99));
+    }
+
+    private int percentile(double quantile) {
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int age = 0; age < counts.length; age++) {
+            seen += counts[age];
+            if (seen >= rank) {
+                return age;
+            }
+        }
+        throw new IllegalStateException("Histogram rank out of range : " + rank);
+    }
+}
@@ -0,0 +1,379 @@
+package ru.hogwarts.school.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.PathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.hogwarts.school.dto.AvatarUploadResultDto;
+import ru.hogwarts.school.exceptions.ImageTooLargeException;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarBlob;
+import ru.hogwarts.school.repository.AvatarBlobRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AvatarBatchUploadService {
+    private static final String SUCCESS_MESSAGE = "Загрузка Аватара прошла успешно";
+    private static final String INSERT_AVATAR = "INSERT INTO avatars (id, file_path, file_size, media_type, blob_id, student_id, version) " +
+            "VALUES (:id, :filePath, :fileSize, :mediaType, :blobId, :studentId, 0)";
+    private static final String UPDATE_AVATAR = "UPDATE avatars SET file_path = :filePath, file_size = :fileSize, " +
+            "media_type = :mediaType, blob_id = :blobId, version = version + 1 WHERE id = :avatarId";
+    private static final String SELECT_AVATARS = "SELECT id, student_id, blob_id FROM avatars WHERE student_id IN (:studentIds)";
+
+    @Value("${upload.dir}")
+    private String UPLOAD_DIR;
+    @Value("${avatar.upload.max-file-size}")
+    private DataSize maxFileSize;
+    @Value("${avatar.upload.batch.concurrency}")
+    private int concurrency;
+    @Value("${avatar.upload.batch.jdbc-batch-size}")
+    private int jdbcBatchSize;
+    @Value("${avatar.upload.batch.max-files}")
+    private int maxFiles;
+    private final AvatarBlobService avatarBlobService;
+    private final AvatarBlobRepository avatarBlobRepository;
+    private final StudentRepository studentRepository;
+    private final AvatarCache avatarCache;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityIdGenerator entityIdGenerator;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = ExecutorServiceMetrics.monitor(meterRegistry,
+                Executors.newFixedThreadPool(concurrency, new CustomizableThreadFactory("avatar-upload-")),
+                "avatar.upload");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public StreamingResponseBody uploadAvatars(final List<MultipartFile> files) {
+        log.info("Was invoked method for : {}", getMethodName());
+        return out -> new Batch(out).run(files);
+    }
+
+    private class Batch {
+        private final OutputStream out;
+        private final CompletionService<StoredAvatar> completionService = new ExecutorCompletionService<>(executor);
+        private final Set<Long> studentIds = new HashSet<>();
+        private final List<StoredAvatar> pending = new ArrayList<>();
+        private int inFlight;
+        private int count;
+
+        Batch(OutputStream out) {
+            this.out = out;
+        }
+
+        void run(List<MultipartFile> files) throws IOException {
+            log.debug("Processing batch of {} uploaded files", files.size());
+            try {
+                for (MultipartFile file : files) {
+                    if (isZip(file)) {
+                        readZip(file);
+                    } else {
+                        submit(file.getOriginalFilename(), file.getContentType(), file.getSize(), file, null);
+                    }
+                }
+                while (inFlight > 0) {
+                    complete();
+                }
+                link();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Batch upload interrupted", e);
+            }
+            log.debug("Batch upload finished, {} files processed", count);
+        }
+
+        private void readZip(MultipartFile file) throws IOException, InterruptedException {
+            try (ZipInputStream zis = new ZipInputStream(file.getInputStream())) {
+                ZipEntry entry;
+                while ((entry = zis.getNextEntry()) != null) {
+                    if (entry.isDirectory()) {
+                        continue;
+                    }
+                    String fileName = StringUtils.substringAfterLast("/" + entry.getName(), "/");
+                    String mediaType = MediaTypeFactory.getMediaType(fileName)
+                            .map(MediaType::toString)
+                            .orElse(null);
+                    Path tempFile = Files.createTempFile(Path.of(UPLOAD_DIR), "batch-", ".tmp");
+                    long size;
+                    try (OutputStream os = Files.newOutputStream(tempFile)) {
+                        size = copyLimited(zis, os);
+                    }
+                    submit(fileName, mediaType, size, new PathResource(tempFile), tempFile);
+                }
+            }
+        }
+
+        private void submit(String fileName, String mediaType, long size,
+                            InputStreamSource source, Path tempFile) throws IOException, InterruptedException {
+            Long studentId = parseStudentId(fileName);
+            String error = validate(studentId, mediaType, size);
+            if (error != null) {
+                deleteFile(tempFile);
+                write(new AvatarUploadResultDto(fileName, studentId, false, error));
+                return;
+            }
+
+            while (inFlight >= concurrency) {
+                complete();
+            }
+            completionService.submit(() -> store(fileName, studentId, mediaType, source, tempFile));
+            inFlight++;
+        }
+
+        private String validate(Long studentId, String mediaType, long size) {
+            if (count + inFlight + pending.size() >= maxFiles) {
+                return "Превышено количество файлов в пакете";
+            }
+            if (studentId == null) {
+                return "Не удалось определить ID студента по имени файла";
+            }
+            if (!isImage(mediaType)) {
+                return "Недопустимый тип файла";
+            }
+            if (size < 0 || size > maxFileSize.toBytes()) {
+                return "Превышен размер файла";
+            }
+            if (!studentIds.add(studentId)) {
+                return "Повторный файл для студента в пакете";
+            }
+            return null;
+        }
+
+        private void complete() throws IOException, InterruptedException {
+            Future<StoredAvatar> future = completionService.take();
+            inFlight--;
+            StoredAvatar stored;
+            try {
+                stored = future.get();
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+            if (stored.blob() == null) {
+                write(new AvatarUploadResultDto(stored.fileName(), stored.studentId(), false, stored.error()));
+                return;
+            }
+            pending.add(stored);
+            if (pending.size() >= jdbcBatchSize) {
+                link();
+            }
+        }
+
+        private void link() throws IOException {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<StoredAvatar> linked = new ArrayList<>(pending);
+            pending.clear();
+            String error = null;
+            try {
+                linkAvatars(linked);
+            } catch (RuntimeException e) {
+                log.error("Failed to link batch of {} avatars", linked.size(), e);
+                error = "Ошибка загрузки файла";
+                releaseAll(linked);
+            }
+            for (StoredAvatar stored : linked) {
+                write(new AvatarUploadResultDto(stored.fileName(), stored.studentId(), error == null,
+                        error == null ? SUCCESS_MESSAGE : error));
+            }
+        }
+
+        private void write(AvatarUploadResultDto result) throws IOException {
+            count++;
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+            out.flush();
+        }
+    }
+
+    private StoredAvatar store(String fileName, Long studentId, String mediaType,
+                               InputStreamSource source, Path tempFile) {
+        try {
+            if (!studentRepository.existsById(studentId)) {
+                return new StoredAvatar(fileName, studentId, mediaType, null, "Отсутствует Студент по данному ID");
+            }
+            AvatarBlob blob;
+            try {
+                blob = storeBlob(fileName, mediaType, source);
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Concurrent upload of the same avatar, retrying : {}", fileName);
+                blob = storeBlob(fileName, mediaType, source);
+            }
+            return new StoredAvatar(fileName, studentId, mediaType, blob, null);
+        } catch (ImageTooLargeException e) {
+            return new StoredAvatar(fileName, studentId, mediaType, null, e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to upload avatar : {}", fileName, e);
+            return new StoredAvatar(fileName, studentId, mediaType, null, "Ошибка загрузки файла");
+        } finally {
+            deleteFile(tempFile);
+        }
+    }
+
+    private AvatarBlob storeBlob(String fileName, String mediaType, InputStreamSource source) throws IOException {
+        try (InputStream is = source.getInputStream()) {
+            return avatarBlobService.store(is, fileName, mediaType);
+        }
+    }
+
+    private void linkAvatars(List<StoredAvatar> avatars) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, long[]> existing = new HashMap<>();
+            jdbcTemplate.query(SELECT_AVATARS,
+                    new MapSqlParameterSource("studentIds", avatars.stream().map(StoredAvatar::studentId).toList()),
+                    rs -> {
+                        existing.put(rs.getLong("student_id"), new long[]{rs.getLong("id"), rs.getLong("blob_id")});
+                    });
+
+            List<MapSqlParameterSource> inserts = new ArrayList<>();
+            List<MapSqlParameterSource> updates = new ArrayList<>();
+            for (StoredAvatar avatar : avatars) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                        .addValue("filePath", avatar.blob().getFilePath())
+                        .addValue("fileSize", avatar.blob().getFileSize())
+                        .addValue("mediaType", avatar.mediaType())
+                        .addValue("blobId", avatar.blob().getId())
+                        .addValue("studentId", avatar.studentId());
+                long[] current = existing.get(avatar.studentId());
+                if (current == null) {
+                    inserts.add(params.addValue("id", entityIdGenerator.nextId(Avatar.class)));
+                } else {
+                    updates.add(params.addValue("avatarId", current[0]));
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_AVATAR, inserts.toArray(MapSqlParameterSource[]::new));
+            jdbcTemplate.batchUpdate(UPDATE_AVATAR, updates.toArray(MapSqlParameterSource[]::new));
+            log.debug("Linked avatars : {} inserted, {} updated", inserts.size(), updates.size());
+
+            for (long[] current : existing.values()) {
+                avatarCache.invalidate(current[0]);
+                if (current[1] != 0) {
+                    avatarBlobService.release(avatarBlobRepository.getReferenceById(current[1]));
+                }
+            }
+        });
+    }
+
+    private void releaseAll(List<StoredAvatar> avatars) {
+        for (StoredAvatar avatar : avatars) {
+            try {
+                avatarBlobService.release(avatar.blob());
+            } catch (RuntimeException e) {
+                log.error("Failed to release avatar blob with ID : {}", avatar.blob().getId(), e);
+            }
+        }
+    }
+
+    private long copyLimited(InputStream is, OutputStream os) throws IOException {
+        byte[] buffer = new byte[8192];
+        long limit = maxFileSize.toBytes();
+        long size = 0;
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            size += read;
+            if (size > limit) {
+                return -1;
+            }
+            os.write(buffer, 0, read);
+        }
+        return size;
+    }
+
+    private static boolean isZip(MultipartFile file) {
+        return "application/zip".equals(file.getContentType())
+                || StringUtils.endsWithIgnoreCase(file.getOriginalFilename(), ".zip");
+    }
+
+    private static boolean isImage(String mediaType) {
+        try {
+            return mediaType != null && "image".equals(MediaType.parseMediaType(mediaType).getType());
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private static Long parseStudentId(String fileName) {
+        String stem = StringUtils.substringBeforeLast(fileName, ".");
+        return StringUtils.isNumeric(stem) && stem.length() <= 18 ? Long.valueOf(stem) : null;
+    }
+
+    private static void deleteFile(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete file : {}", path, e);
+        }
+    }
+
+    private static String getMethodName() {
+        return convertCamelCaseToSpace(Thread.currentThread().getStackTrace()[2].getMethodName());
+    }
+
+    private static String convertCamelCaseToSpace(String camelCaseString) {
+        return camelCaseString.replaceAll("(?<=.)([A-Z])", " $1").toLowerCase();
+    }
+
+    private record StoredAvatar(
+            String fileName,
+            Long studentId,
+            String mediaType,
+            AvatarBlob blob,
+            String error
+    ) {
+    }
+}
@@ -0,0 +1,306 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.event.AvatarBlobStoredEvent;
+import ru.hogwarts.school.exceptions.FailedUploadFileException;
+import ru.hogwarts.school.model.AvatarBlob;
+import ru.hogwarts.school.model.StorageTier;
+import ru.hogwarts.school.repository.AvatarBlobRepository;
+import ru.hogwarts.school.repository.AvatarPreviewRepository;
+import ru.hogwarts.school.storage.AvatarStorage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Service
+@Transactional
+public class AvatarBlobService {
+    @Value("${upload.dir}")
+    private String UPLOAD_DIR;
+    @Value("${avatar.storage.tier}")
+    private StorageTier tier;
+    private final AvatarBlobRepository avatarBlobRepository;
+    private final AvatarPreviewRepository avatarPreviewRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImageProcessor imageProcessor;
+    private final Map<StorageTier, AvatarStorage> storages = new EnumMap<>(StorageTier.class);
+    private final TransactionTemplate readOnlyTransaction;
+    private final Counter fallbackReads;
+
+    public AvatarBlobService(AvatarBlobRepository avatarBlobRepository,
+                             AvatarPreviewRepository avatarPreviewRepository,
+                             ApplicationEventPublisher eventPublisher,
+                             ImageProcessor imageProcessor,
+                             List<AvatarStorage> storages,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.avatarBlobRepository = avatarBlobRepository;
+        this.avatarPreviewRepository = avatarPreviewRepository;
+        this.eventPublisher = eventPublisher;
+        this.imageProcessor = imageProcessor;
+        storages.forEach(storage -> this.storages.put(storage.getTier(), storage));
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fallbackReads = Counter.builder("avatar.storage.fallback.reads")
+                .description("Avatar reads served by a tier other than the recorded one")
+                .register(meterRegistry);
+    }
+
+    public StorageTier getTier() {
+        return tier;
+    }
+
+    public AvatarBlob store(final InputStream is, final String fileName, final String mediaType) {
+        log.info("Was invoked method for : {}", getMethodName());
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(Path.of(UPLOAD_DIR), "upload-", ".tmp");
+            String hash = copyWithHash(is, tempFile);
+            log.debug("Avatar data hashed : {}", hash);
+            try (InputStream header = Files.newInputStream(tempFile)) {
+                imageProcessor.validate(header);
+            }
+
+            Optional<AvatarBlob> existing = avatarBlobRepository.findByHash(hash);
+            if (existing.isPresent()) {
+                AvatarBlob blob = existing.get();
+                blob.setRefCount(blob.getRefCount() + 1);
+                log.debug("Reusing avatar blob with ID : {}", blob.getId());
+                return blob;
+            }
+
+            String filePath = tier == StorageTier.FILE_SYSTEM
+                    ? Path.of(UPLOAD_DIR, hash + extensionOf(fileName)).toString()
+                    : null;
+            AvatarBlob blob = new AvatarBlob(hash, filePath, Files.size(tempFile), mediaType, 1, null, tier);
+            log.debug("Saving avatar blob : {} to {}", hash, tier);
+            storages.get(tier).write(blob, tempFile);
+            Path written = tier == StorageTier.FILE_SYSTEM ? Path.of(blob.getFilePath()) : null;
+            try {
+                avatarBlobRepository.saveAndFlush(blob);
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Avatar blob {} was stored by a concurrent upload", hash);
+                throw e;
+            } catch (RuntimeException e) {
+                deleteFile(written);
+                throw e;
+            }
+            deleteOnRollback(written);
+            eventPublisher.publishEvent(new AvatarBlobStoredEvent(blob.getId()));
+            return blob;
+        } catch (IOException e) {
+            log.error("Failed to store avatar data", e);
+            throw new FailedUploadFileException();
+        } finally {
+            deleteFile(tempFile);
+        }
+    }
+
+    public void release(final AvatarBlob blob) {
+        release(blob.getId(), 1);
+    }
+
+    public void release(final Long blobId, final int references) {
+        log.info("Was invoked method for : {}", getMethodName());
+        AvatarBlob locked = avatarBlobRepository.findLockedById(blobId).orElseThrow();
+        locked.setRefCount(locked.getRefCount() - references);
+        if (locked.getRefCount() > 0) {
+            log.debug("Avatar blob with ID : {} still has {} references", locked.getId(), locked.getRefCount());
+            return;
+        }
+
+        log.debug("Removing avatar blob with ID : {}", locked.getId());
+        avatarPreviewRepository.deleteAllByBlobId(locked.getId());
+        storages.values().forEach(storage -> storage.delete(locked));
+        avatarBlobRepository.delete(locked);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public <T> T read(final Long blobId, final BlobReader<T> reader) throws IOException {
+        log.info("Was invoked method for : {}", getMethodName());
+        InputStream detached;
+        try {
+            detached = readOnlyTransaction.execute(status -> openDetached(blobId));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        try (InputStream is = detached) {
+            return reader.read(is);
+        }
+    }
+
+    public Optional<Path> findLocalFile(final AvatarBlob blob) {
+        AvatarStorage storage = storages.get(StorageTier.FILE_SYSTEM);
+        return blob.getStorage() == StorageTier.FILE_SYSTEM && storage.contains(blob)
+                ? Optional.of(Path.of(blob.getFilePath()))
+                : Optional.empty();
+    }
+
+    @Transactional(rollbackFor = IOException.class)
+    public boolean migrateToFileSystem(final Long blobId) throws IOException {
+        log.info("Was invoked method for : {}", getMethodName());
+        AvatarBlob blob = avatarBlobRepository.findLockedById(blobId).orElse(null);
+        if (blob == null || blob.getStorage() != StorageTier.DATABASE) {
+            return false;
+        }
+        AvatarStorage database = storages.get(StorageTier.DATABASE);
+        AvatarStorage fileSystem = storages.get(StorageTier.FILE_SYSTEM);
+
+        if (!fileSystem.contains(blob) || !hashOf(fileSystem, blob).equals(blob.getHash())) {
+            Path tempFile = Files.createTempFile(Path.of(UPLOAD_DIR), "migrate-", ".tmp");
+            try {
+                String hash;
+                try (InputStream is = database.open(blob)) {
+                    hash = copyWithHash(is, tempFile);
+                }
+                if (!hash.equals(blob.getHash())) {
+                    throw new IOException("Hash mismatch for avatar blob with ID : " + blobId);
+                }
+                blob.setFilePath(null);
+                fileSystem.write(blob, tempFile);
+            } finally {
+                deleteFile(tempFile);
+            }
+        }
+
+        log.debug("Avatar blob with ID : {} moved to file : {}", blobId, blob.getFilePath());
+        database.delete(blob);
+        blob.setStorage(StorageTier.FILE_SYSTEM);
+        return true;
+    }
+
+    private InputStream openDetached(Long blobId) {
+        AvatarBlob blob = avatarBlobRepository.findById(blobId).orElseThrow();
+        try {
+            AvatarStorage primary = storages.get(blob.getStorage());
+            if (primary.contains(blob)) {
+                try {
+                    return detach(primary, blob);
+                } catch (IOException e) {
+                    log.warn("Failed to open avatar blob with ID : {} in {}", blob.getId(), blob.getStorage(), e);
+                }
+            }
+            for (AvatarStorage fallback : storages.values()) {
+                if (fallback != primary && fallback.contains(blob)) {
+                    log.debug("Reading avatar blob with ID : {} from fallback {}", blob.getId(), fallback.getTier());
+                    fallbackReads.increment();
+                    return detach(fallback, blob);
+                }
+            }
+            throw new IOException("No storage holds avatar blob with ID : " + blob.getId());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private InputStream detach(AvatarStorage storage, AvatarBlob blob) throws IOException {
+        if (storage.getTier() == StorageTier.FILE_SYSTEM) {
+            return storage.open(blob);
+        }
+        log.debug("Copying avatar blob with ID : {} out of {}", blob.getId(), storage.getTier());
+        Path tempFile = Files.createTempFile(Path.of(UPLOAD_DIR), "read-", ".tmp");
+        try (InputStream is = storage.open(blob)) {
+            Files.copy(is, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            return Files.newInputStream(tempFile, StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            deleteFile(tempFile);
+            throw e;
+        }
+    }
+
+    private static String hashOf(AvatarStorage storage, AvatarBlob blob) throws IOException {
+        MessageDigest digest = newDigest();
+        try (DigestInputStream dis = new DigestInputStream(storage.open(blob), digest)) {
+            dis.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String copyWithHash(InputStream is, Path target) throws IOException {
+        MessageDigest digest = newDigest();
+        try (DigestInputStream dis = new DigestInputStream(is, digest)) {
+            Files.copy(dis, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String extensionOf(String fileName) {
+        String extension = StringUtils.substringAfterLast(fileName, ".");
+        return extension.isEmpty() ? "" : "." + extension.toLowerCase();
+    }
+
+    private static void deleteOnRollback(Path path) {
+        if (path == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    log.debug("Removing file of rolled back avatar blob : {}", path);
+                    deleteFile(path);
+                }
+            }
+        });
+    }
+
+    private static void deleteFile(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete file : {}", path, e);
+        }
+    }
+
+    private static String getMethodName() {
+        return convertCamelCaseToSpace(Thread.currentThread().getStackTrace()[2].getMethodName());
+    }
+
+    private static String convertCamelCaseToSpace(String camelCaseString) {
+        return camelCaseString.replaceAll("(?<=.)([A-Z])", " $1").toLowerCase();
+    }
+
+    @FunctionalInterface
+    public interface BlobReader<T> {
+        T read(InputStream is) throws IOException;
+    }
+}
@@ -0,0 +1,163 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class AvatarCache {
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<Key, CachedAvatar> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private long usedBytes;
+
+    public AvatarCache(@Value("${avatar.cache.max-size}") DataSize maxSize,
+                       @Value("${avatar.cache.max-entry-size}") DataSize maxEntrySize,
+                       MeterRegistry meterRegistry) {
+        this.maxBytes = maxSize.toBytes();
+        this.maxEntryBytes = Math.min(maxEntrySize.toBytes(), maxBytes);
+        this.hits = Counter.builder("avatar.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("avatar.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("avatar.cache.evictions").register(meterRegistry);
+        Gauge.builder("avatar.cache.size", this, AvatarCache::usedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("avatar.cache.entries", this, AvatarCache::entryCount)
+                .register(meterRegistry);
+    }
+
+    public Optional<CachedAvatar> get(final Long avatarId, final Integer size) {
+        CachedAvatar cached;
+        synchronized (this) {
+            cached = entries.get(new Key(avatarId, size));
+        }
+        (cached == null ? misses : hits).increment();
+        return Optional.ofNullable(cached);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public boolean fits(final long length) {
+        return length <= maxEntryBytes;
+    }
+
+    public CachedAvatar load(final Long avatarId, final Integer size, final long loadedAtGeneration,
+                             final String etag, final long lastModified, final String mediaType,
+                             final int length, final ReadableByteChannel channel) throws IOException {
+        ByteBuffer data = ByteBuffer.allocateDirect(length);
+        while (data.hasRemaining()) {
+            if (channel.read(data) < 0) {
+                break;
+            }
+        }
+        data.flip();
+        CachedAvatar cached = new CachedAvatar(etag, lastModified, mediaType, data.asReadOnlyBuffer());
+        if (fits(length)) {
+            put(new Key(avatarId, size), cached, loadedAtGeneration);
+        }
+        return cached;
+    }
+
+    public void invalidate(final Long avatarId) {
+        evict(avatarId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(avatarId);
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        synchronized (this) {
+            entries.clear();
+            usedBytes = 0;
+        }
+        log.debug("Avatar cache cleared");
+    }
+
+    private synchronized void put(Key key, CachedAvatar cached, long loadedAtGeneration) {
+        if (loadedAtGeneration != generation.get()) {
+            log.debug("Skipping stale avatar cache entry : {}", key);
+            return;
+        }
+        CachedAvatar previous = entries.remove(key);
+        if (previous != null) {
+            usedBytes -= previous.length();
+        }
+        Iterator<CachedAvatar> eldest = entries.values().iterator();
+        while (usedBytes + cached.length() > maxBytes && eldest.hasNext()) {
+            usedBytes -= eldest.next().length();
+            eldest.remove();
+            evictions.increment();
+        }
+        entries.put(key, cached);
+        usedBytes += cached.length();
+    }
+
+    private void evict(Long avatarId) {
+        generation.incrementAndGet();
+        synchronized (this) {
+            Iterator<Map.Entry<Key, CachedAvatar>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Key, CachedAvatar> entry = iterator.next();
+                if (Objects.equals(entry.getKey().avatarId(), avatarId)) {
+                    usedBytes -= entry.getValue().length();
+                    iterator.remove();
+                }
+            }
+        }
+        log.debug("Avatar with ID : {} evicted from cache", avatarId);
+    }
+
+    private synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    private synchronized int entryCount() {
+        return entries.size();
+    }
+
+    public record CachedAvatar(
+            String etag,
+            long lastModified,
+            String mediaType,
+            ByteBuffer data
+    ) {
+        public int length() {
+            return data.capacity();
+        }
+    }
+
+    private record Key(
+            Long avatarId,
+            Integer size
+    ) {
+    }
+}
@@ -0,0 +1,129 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.event.AvatarBlobStoredEvent;
+import ru.hogwarts.school.exceptions.WrongPreviewSizeException;
+import ru.hogwarts.school.model.AvatarPreview;
+import ru.hogwarts.school.repository.AvatarBlobRepository;
+import ru.hogwarts.school.repository.AvatarPreviewRepository;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AvatarPreviewService {
+    private static final String PREVIEW_MEDIA_TYPE = "image/png";
+
+    @Value("${avatar.preview.sizes}")
+    private List<Integer> sizes;
+    @Value("${avatar.preview.threads}")
+    private int threads;
+    @Value("${avatar.preview.queue-capacity}")
+    private int queueCapacity;
+    private final AvatarBlobRepository avatarBlobRepository;
+    private final AvatarBlobService avatarBlobService;
+    private final ImageProcessor imageProcessor;
+    private final AvatarPreviewRepository avatarPreviewRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    private ExecutorService executor;
+    private Timer renderTimer;
+
+    @PostConstruct
+    public void init() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("avatar-preview-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "avatar.preview");
+        renderTimer = Timer.builder("avatar.preview.render")
+                .description("Time to render all preview sizes of one avatar")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @TransactionalEventListener
+    public void onBlobStored(final AvatarBlobStoredEvent event) {
+        log.info("Was invoked method for : {}", getMethodName());
+        log.debug("Scheduling previews for avatar blob with ID : {}", event.blobId());
+        executor.execute(() -> renderTimer.record(() -> renderPreviews(event)));
+    }
+
+    public String getPreviewUrl(final Long avatarId) {
+        return "/avatars/" + avatarId + "?size=" + Collections.min(sizes);
+    }
+
+    public Optional<AvatarPreview> findPreview(final Long blobId, final int size) {
+        log.info("Was invoked method for : {}", getMethodName());
+        validateSize(size);
+        return avatarPreviewRepository.findByBlobIdAndWidth(blobId, size);
+    }
+
+    private void renderPreviews(AvatarBlobStoredEvent event) {
+        log.info("Was invoked method for : {}", getMethodName());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            BufferedImage image = avatarBlobService.read(event.blobId(),
+                    is -> imageProcessor.decode(is, Collections.max(sizes)));
+            for (Integer size : sizes) {
+                byte[] data = generateImagePreview(image, size);
+                transactionTemplate.executeWithoutResult(status -> avatarBlobRepository.findById(event.blobId())
+                        .ifPresent(blob -> avatarPreviewRepository.save(
+                                new AvatarPreview(blob, size, PREVIEW_MEDIA_TYPE, data))));
+            }
+            log.debug("Previews rendered for avatar blob with ID : {}", event.blobId());
+        } catch (Exception e) {
+            log.error("Failed to render previews for avatar blob with ID : {}", event.blobId(), e);
+        }
+    }
+
+    private byte[] generateImagePreview(BufferedImage image, int width) throws IOException {
+        log.info("Was invoked method for : {}", getMethodName());
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            ImageIO.write(imageProcessor.scaleToWidth(image, width), "png", baos);
+            return baos.toByteArray();
+        }
+    }
+
+    private void validateSize(int size) {
+        if (!sizes.contains(size)) {
+            log.error("Unsupported preview size : {}", size);
+            throw new WrongPreviewSizeException("Поддерживаются только размеры превью " + sizes);
+        }
+    }
+
+    private static String getMethodName() {
+        return convertCamelCaseToSpace(Thread.currentThread().getStackTrace()[2].getMethodName());
+    }
+
+    private static String convertCamelCaseToSpace(String camelCaseString) {
+        return camelCaseString.replaceAll("(?<=.)([A-Z])", " $1").toLowerCase();
+    }
+}
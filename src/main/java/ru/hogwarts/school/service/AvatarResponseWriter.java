@@ -0,0 +1,171 @@
+package ru.hogwarts.school.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+@Slf4j
+@Component
+public class AvatarResponseWriter {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    public boolean checkNotModified(final HttpServletRequest request, final HttpServletResponse response,
+                                    final String etag, final long lastModified) {
+        boolean notModified = new ServletWebRequest(request, response).checkNotModified(etag, lastModified);
+        if (notModified) {
+            log.debug("Avatar not modified : {}", etag);
+        }
+        return notModified;
+    }
+
+    public void writeFile(final HttpServletRequest request, final HttpServletResponse response,
+                          final Path path, final String etag, final MediaType mediaType) throws IOException {
+        long length = Files.size(path);
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        String fileEtag = etag != null ? etag
+                : "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + "\"";
+
+        ByteRange range = prepare(request, response, fileEtag, lastModified, mediaType, length);
+        if (range == null || isHead(request) || range.length() == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            log.debug("Sending file with sendfile : {}", path);
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, range.start());
+            request.setAttribute(SENDFILE_END, range.end() + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = range.start();
+            long remaining = range.length();
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    public void writeBytes(final HttpServletRequest request, final HttpServletResponse response,
+                           final byte[] data, final String etag, final MediaType mediaType) throws IOException {
+        writeStream(request, response, etag, -1, mediaType, data.length,
+                (out, start, end) -> out.write(data, (int) start, (int) (end - start + 1)));
+    }
+
+    public void writeStream(final HttpServletRequest request, final HttpServletResponse response,
+                            final String etag, final long lastModified, final MediaType mediaType,
+                            final long length, final RangeBody body) throws IOException {
+        ByteRange range = prepare(request, response, etag, lastModified, mediaType, length);
+        if (range == null || isHead(request) || range.length() == 0) {
+            return;
+        }
+        body.write(response.getOutputStream(), range.start(), range.end());
+    }
+
+    private ByteRange prepare(HttpServletRequest request, HttpServletResponse response, String etag,
+                              long lastModified, MediaType mediaType, long length) {
+        if (checkNotModified(request, response, etag, lastModified)) {
+            return null;
+        }
+        response.setContentType(mediaType.toString());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+
+        ByteRange range = resolveRange(request, etag, lastModified, length);
+        if (range == null) {
+            log.debug("Requested range not satisfiable : {}", request.getHeader(HttpHeaders.RANGE));
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return null;
+        }
+        if (range.length() != length) {
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + range.start() + "-" + range.end() + "/" + length);
+        }
+        response.setContentLengthLong(range.length());
+        return range;
+    }
+
+    private ByteRange resolveRange(HttpServletRequest request, String etag, long lastModified, long length) {
+        ByteRange full = new ByteRange(0, length - 1);
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || length == 0 || !matchesIfRange(request, etag, lastModified)) {
+            return full;
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring malformed range : {}", header);
+            return full;
+        }
+        if (ranges.size() != 1) {
+            return full;
+        }
+        try {
+            HttpRange range = ranges.get(0);
+            long start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            return start < length && start <= end ? new ByteRange(start, end) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean matchesIfRange(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        long ifRangeDate = request.getDateHeader(HttpHeaders.IF_RANGE);
+        return lastModified > 0 && ifRangeDate / 1000 == lastModified / 1000;
+    }
+
+    private static boolean isHead(HttpServletRequest request) {
+        return HttpMethod.HEAD.matches(request.getMethod());
+    }
+
+    @FunctionalInterface
+    public interface RangeBody {
+        void write(OutputStream out, long start, long end) throws IOException;
+    }
+
+    private record ByteRange(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+    }
+}
@@ -1,138 +1,251 @@
 package ru.hogwarts.school.service;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.multipart.MultipartFile;
+import ru.hogwarts.school.dto.AvatarResponseDto;
+import ru.hogwarts.school.dto.CursorPageDto;
 import ru.hogwarts.school.exceptions.AvatarNotFoundException;
 import ru.hogwarts.school.exceptions.FailedUploadFileException;
+import ru.hogwarts.school.exceptions.StudentNotFoundException;
 import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.AvatarBlob;
+import ru.hogwarts.school.model.AvatarPreview;
+import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.AvatarCache.CachedAvatar;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.*;
-import java.net.MalformedURLException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.List;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
 
 @Slf4j
 @Service
-@Transactional
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class AvatarService {
     @Value("${upload.dir}")
     private String UPLOAD_DIR;
     private final AvatarRepository avatarRepository;
+    private final StudentRepository studentRepository;
+    private final AvatarBlobService avatarBlobService;
+    private final AvatarPreviewService avatarPreviewService;
+    private final AvatarResponseWriter avatarResponseWriter;
+    private final AvatarCache avatarCache;
+    private final KeysetPagination keysetPagination;
+    private final PlatformTransactionManager transactionManager;
 
-    public String saveAvatar(final MultipartFile file) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String saveAvatar(final MultipartFile file, final Long studentId) {
         log.info("Was invoked method for : {}", getMethodName());
+        if (studentId != null && !studentRepository.existsById(studentId)) {
+            log.error("Student not found with ID : {}", studentId);
+            throw new StudentNotFoundException("Отсутствует Студент по данному ID");
+        }
+
+        AvatarBlob blob;
         try {
-            String fileName = file.getOriginalFilename();
-            String filePath = UPLOAD_DIR + fileName;
-            File avatarFile = new File(filePath);
-            file.transferTo(avatarFile);
-            log.debug("Avatar uploaded to directory");
-            byte[] fileBytes = Files.readAllBytes(avatarFile.toPath());
+            blob = storeBlob(file);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Concurrent upload of the same avatar, retrying : {}", file.getOriginalFilename());
+            blob = storeBlob(file);
+        }
+        log.debug("Avatar uploaded to directory");
 
-            Avatar avatar = new Avatar();
-            avatar.setFilePath(filePath);
-            avatar.setFileSize(file.getSize());
-            avatar.setMediaType(file.getContentType());
-            avatar.setData(fileBytes);
-            log.debug("Saving avatar : {}", fileName);
-
-            try {
-                avatarRepository.save(avatar);
-            } catch (Exception e) {
-                log.error("Failed to save avatar", e);
-                throw e;
-            }
-            return "Загрузка Аватара прошла успешно";
-        } catch (IOException e) {
-            log.error("Failed to upload avatar", e);
-            throw new FailedUploadFileException();
+        try {
+            linkAvatar(blob, file.getContentType(), studentId);
+        } catch (RuntimeException e) {
+            log.error("Failed to save avatar", e);
+            avatarBlobService.release(blob);
+            throw e;
         }
+        return "Загрузка Аватара прошла успешно";
     }
 
-    public ResponseEntity<byte[]> getAvatarById(final Long id) {
+    @Transactional
+    public void removeAvatarById(final Long id) {
         log.info("Was invoked method for : {}", getMethodName());
-        log.debug("Fetching avatar with ID : {}", id);
-
         Avatar avatar = avatarRepository.findById(id)
                 .orElseThrow(() -> {
                     log.error("Avatar not found with ID : {}", id);
                     return new AvatarNotFoundException("Отсутствует аватар c данным ИД");
                 });
+        log.debug("Removing avatar with ID : {}", id);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType(avatar.getMediaType()));
-        return new ResponseEntity<>(avatar.getData(), headers, HttpStatus.OK);
+        avatarRepository.delete(avatar);
+        avatarCache.invalidate(id);
+        if (avatar.getBlob() != null) {
+            avatarBlobService.release(avatar.getBlob());
+        }
     }
 
-    public ResponseEntity<Resource> getAvatarFromFile(final String fileName) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void getAvatarById(final Long id, final Integer size,
+                              final HttpServletRequest request, final HttpServletResponse response) throws IOException {
         log.info("Was invoked method for : {}", getMethodName());
-        File file = new File(UPLOAD_DIR + fileName + ".png");
-        if (file.exists()) {
-            Path path = Paths.get(file.getPath());
-            UrlResource resource;
-            try {
-                resource = new UrlResource(path.toUri());
-            } catch (MalformedURLException e) {
-                log.error("Wrong file path : {}", path);
-                throw new RuntimeException("Неправильный путь к файлу");
-            }
+        Optional<CachedAvatar> cached = avatarCache.get(id, size);
+        if (cached.isPresent()) {
+            log.debug("Serving avatar with ID : {} from cache", id);
+            writeCached(request, response, cached.get());
+            return;
+        }
+
+        long generation = avatarCache.generation();
+        log.debug("Fetching avatar with ID : {}", id);
+        Avatar avatar = avatarRepository.findWithBlobById(id)
+                .orElseThrow(() -> {
+                    log.error("Avatar not found with ID : {}", id);
+                    return new AvatarNotFoundException("Отсутствует аватар c данным ИД");
+                });
+        AvatarBlob blob = avatar.getBlob();
 
-            if (resource.exists()) {
-                log.debug("Avatar resource found for path: {}", file.getPath());
-                return ResponseEntity.ok()
-                        .contentType(MediaType.IMAGE_PNG)
-                        .body(resource);
+        Optional<AvatarPreview> found = size == null
+                ? Optional.empty()
+                : avatarPreviewService.findPreview(blob.getId(), size);
+        if (found.isPresent()) {
+            String etag = "\"" + blob.getHash() + "-" + size + "\"";
+            if (avatarResponseWriter.checkNotModified(request, response, etag, -1)) {
+                return;
             }
+            AvatarPreview preview = found.get();
+            log.debug("Serving preview of avatar with ID : {} and size : {}", id, size);
+            writeCached(request, response, avatarCache.load(id, size, generation, etag, -1, preview.getMediaType(),
+                    preview.getData().length, Channels.newChannel(new ByteArrayInputStream(preview.getData()))));
+            return;
+        }
+
+        String etag = "\"" + blob.getHash() + "\"";
+        if (avatarResponseWriter.checkNotModified(request, response, etag, -1)) {
+            return;
+        }
+        MediaType mediaType = MediaType.parseMediaType(avatar.getMediaType());
+        Optional<Path> path = avatarBlobService.findLocalFile(blob);
+
+        if (avatarCache.fits(blob.getFileSize())) {
+            log.debug("Caching avatar with ID : {}", id);
+            CachedAvatar loaded = path.isPresent()
+                    ? loadFromFile(id, generation, etag, avatar.getMediaType(), blob, path.get())
+                    : avatarBlobService.read(blob.getId(), is -> avatarCache.load(id, null, generation, etag, -1,
+                    avatar.getMediaType(), (int) blob.getFileSize(), Channels.newChannel(is)));
+            writeCached(request, response, loaded);
+        } else if (path.isPresent()) {
+            log.debug("Serving avatar with ID : {} from file", id);
+            avatarResponseWriter.writeFile(request, response, path.get(), etag, mediaType);
+        } else {
+            log.debug("Serving avatar with ID : {} from {}", id, blob.getStorage());
+            avatarResponseWriter.writeStream(request, response, etag, -1, mediaType, blob.getFileSize(),
+                    (out, start, end) -> avatarBlobService.read(blob.getId(),
+                            is -> StreamUtils.copyRange(is, out, start, end)));
         }
-        log.error("No avatar found for this path : {}", file.getPath());
-        throw new AvatarNotFoundException("Не найден Аватар по данному пути");
     }
 
-    public List<Avatar> getAllAvatar(final Integer pageNumber, final Integer pageSize) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void getAvatarFromFile(final String fileName,
+                                  final HttpServletRequest request, final HttpServletResponse response) throws IOException {
         log.info("Was invoked method for : {}", getMethodName());
-        PageRequest pageRequest = PageRequest.of(pageNumber, pageSize);
-        log.debug("Search all avatars");
-        return avatarRepository.findAll(pageRequest).getContent();
+        Path path = Path.of(UPLOAD_DIR, fileName + ".png");
+        if (!Files.isRegularFile(path)) {
+            log.error("No avatar found for this path : {}", path);
+            throw new AvatarNotFoundException("Не найден Аватар по данному пути");
+        }
+        log.debug("Avatar resource found for path: {}", path);
+        avatarResponseWriter.writeFile(request, response, path, null, MediaType.IMAGE_PNG);
     }
 
-    private byte[] generateImagePreview(String filePath) {
+    public CursorPageDto<AvatarResponseDto> getAllAvatar(final String cursor, final Integer size) {
         log.info("Was invoked method for : {}", getMethodName());
-        try (InputStream is = Files.newInputStream(Path.of(filePath));
-             BufferedInputStream bis = new BufferedInputStream(is, 1024);
-             ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            BufferedImage image = ImageIO.read(bis);
-
-            int height = image.getHeight() / (image.getWidth() / 100);
-            BufferedImage preview = new BufferedImage(100, height, image.getType());
-            Graphics2D graphics = preview.createGraphics();
-            graphics.drawImage(image, 0, 0, 100, height, null);
-            graphics.dispose();
-
-            ImageIO.write(preview, "png", baos);
-            return baos.toByteArray();
+        int pageSize = keysetPagination.pageSize(size);
+        long afterId = cursor == null ? 0 : keysetPagination.decode(cursor, 1)[0];
+        log.debug("Search avatars after ID : {}", afterId);
+        var avatars = avatarRepository.findAllMetadata(afterId, keysetPagination.limit(pageSize)).stream()
+                .map(avatar -> new AvatarResponseDto(avatar.getId(), avatar.getFileSize(), avatar.getMediaType(),
+                        avatar.getStudentId(), avatarPreviewService.getPreviewUrl(avatar.getId())))
+                .toList();
+        var page = keysetPagination.page(avatars, pageSize, avatar -> new long[]{avatar.id()});
+        return cursor == null
+                ? new CursorPageDto<>(page.content(), page.nextCursor(), avatarRepository.count())
+                : page;
+    }
+
+    private AvatarBlob storeBlob(MultipartFile file) {
+        try (InputStream is = file.getInputStream()) {
+            return avatarBlobService.store(is, file.getOriginalFilename(), file.getContentType());
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            log.error("Failed to upload avatar", e);
+            throw new FailedUploadFileException();
+        }
+    }
+
+    private void linkAvatar(AvatarBlob blob, String mediaType, Long studentId) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Avatar avatar = new Avatar();
+            if (studentId != null) {
+                Student student = studentRepository.findById(studentId)
+                        .orElseThrow(() -> {
+                            log.error("Student not found with ID : {}", studentId);
+                            return new StudentNotFoundException("Отсутствует Студент по данному ID");
+                        });
+                avatar = avatarRepository.findByStudentId(studentId).orElseGet(Avatar::new);
+                avatar.setStudent(student);
+            }
+
+            if (avatar.getBlob() != null) {
+                log.debug("Replacing avatar with ID : {}", avatar.getId());
+                avatarBlobService.release(avatar.getBlob());
+                avatarCache.invalidate(avatar.getId());
+            }
+            avatar.setBlob(blob);
+            avatar.setFilePath(blob.getFilePath());
+            avatar.setFileSize(blob.getFileSize());
+            avatar.setMediaType(mediaType);
+            log.debug("Saving avatar with blob ID : {}", blob.getId());
+            avatarRepository.save(avatar);
+        });
+    }
+
+    private CachedAvatar loadFromFile(Long id, long generation, String etag, String mediaType,
+                                      AvatarBlob blob, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return avatarCache.load(id, null, generation, etag, Files.getLastModifiedTime(path).toMillis(),
+                    mediaType, (int) blob.getFileSize(), channel);
         }
     }
 
+    private void writeCached(HttpServletRequest request, HttpServletResponse response,
+                             CachedAvatar cached) throws IOException {
+        ByteBuffer data = cached.data();
+        avatarResponseWriter.writeStream(request, response, cached.etag(), cached.lastModified(),
+                MediaType.parseMediaType(cached.mediaType()), data.remaining(),
+                (out, start, end) -> {
+                    ByteBuffer range = data.duplicate();
+                    range.position((int) start).limit((int) end + 1);
+                    WritableByteChannel channel = Channels.newChannel(out);
+                    while (range.hasRemaining()) {
+                        channel.write(range);
+                    }
+                });
+    }
+
     private static String getMethodName() {
         return convertCamelCaseToSpace(Thread.currentThread().getStackTrace()[2].getMethodName());
     }
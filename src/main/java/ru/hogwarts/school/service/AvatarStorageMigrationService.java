@@ -0,0 +1,90 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.dto.AvatarStorageStatusDto;
+import ru.hogwarts.school.model.StorageTier;
+import ru.hogwarts.school.repository.AvatarBlobRepository;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+public class AvatarStorageMigrationService {
+    @Value("${avatar.storage.migration.enabled}")
+    private boolean enabled;
+    @Value("${avatar.storage.migration.batch-size}")
+    private int batchSize;
+    private final AvatarBlobService avatarBlobService;
+    private final AvatarBlobRepository avatarBlobRepository;
+    private final AtomicLong remaining = new AtomicLong();
+    private final Counter migrated;
+    private final Counter failed;
+    private long lastId;
+
+    public AvatarStorageMigrationService(AvatarBlobService avatarBlobService,
+                                         AvatarBlobRepository avatarBlobRepository,
+                                         MeterRegistry meterRegistry) {
+        this.avatarBlobService = avatarBlobService;
+        this.avatarBlobRepository = avatarBlobRepository;
+        this.migrated = Counter.builder("avatar.storage.migration.blobs").tag("result", "migrated")
+                .register(meterRegistry);
+        this.failed = Counter.builder("avatar.storage.migration.blobs").tag("result", "failed")
+                .register(meterRegistry);
+        Gauge.builder("avatar.storage.migration.remaining", remaining, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${avatar.storage.migration.delay}",
+            fixedDelayString = "${avatar.storage.migration.delay}")
+    public synchronized void migrateBatch() {
+        if (!enabled || avatarBlobService.getTier() != StorageTier.FILE_SYSTEM) {
+            return;
+        }
+        List<Long> ids = avatarBlobRepository.findIdsByStorage(StorageTier.DATABASE, lastId,
+                PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            lastId = 0;
+            remaining.set(avatarBlobRepository.countByStorage(StorageTier.DATABASE));
+            return;
+        }
+
+        log.info("Was invoked method for : {}", getMethodName());
+        for (Long id : ids) {
+            try {
+                if (avatarBlobService.migrateToFileSystem(id)) {
+                    migrated.increment();
+                }
+            } catch (Exception e) {
+                log.error("Failed to migrate avatar blob with ID : {}", id, e);
+                failed.increment();
+            }
+            lastId = id;
+        }
+        remaining.set(avatarBlobRepository.countByStorage(StorageTier.DATABASE));
+        log.debug("Avatar blobs left in database : {}", remaining.get());
+    }
+
+    public AvatarStorageStatusDto getStatus() {
+        log.info("Was invoked method for : {}", getMethodName());
+        return new AvatarStorageStatusDto(avatarBlobService.getTier(), enabled,
+                avatarBlobRepository.countByStorage(StorageTier.DATABASE),
+                avatarBlobRepository.countByStorage(StorageTier.FILE_SYSTEM),
+                (long) migrated.count(), (long) failed.count());
+    }
+
+    private static String getMethodName() {
+        return convertCamelCaseToSpace(Thread.currentThread().getStackTrace()[2].getMethodName());
+    }
+
+    private static String convertCamelCaseToSpace(String camelCaseString) {
+        return camelCaseString.replaceAll("(?<=.)([A-Z])", " $1").toLowerCase();
+    }
+}
@@ -0,0 +1,148 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+@Slf4j
+public class BatchLoader<V> {
+    private final String name;
+    private final Function<Collection<Long>, Map<Long, V>> fetcher;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final Map<Long, CompletableFuture<Optional<V>>> inFlight = new HashMap<>();
+    private final Counter requests;
+    private final Counter queries;
+    private final DistributionSummary batchSize;
+    private Batch<V> current;
+
+    public BatchLoader(String name,
+                       Function<Collection<Long>, Map<Long, V>> fetcher,
+                       long windowMillis,
+                       int maxBatchSize,
+                       MeterRegistry meterRegistry) {
+        this.name = name;
+        this.fetcher = fetcher;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.requests = Counter.builder("batch.loader.requests")
+                .description("Single-id lookups served by the loader")
+                .tag("loader", name)
+                .register(meterRegistry);
+        this.queries = Counter.builder("batch.loader.queries")
+                .description("Batched queries issued by the loader")
+                .tag("loader", name)
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("batch.loader.batch.size")
+                .description("Distinct ids per batched query")
+                .tag("loader", name)
+                .register(meterRegistry);
+        Gauge.builder("batch.loader.window", () -> windowMillis)
+                .description("Time the first lookup waits for others to join its batch")
+                .baseUnit("milliseconds")
+                .tag("loader", name)
+                .register(meterRegistry);
+        Gauge.builder("batch.loader.coalescing.ratio", this, BatchLoader::coalescingRatio)
+                .description("Lookups served per batched query")
+                .tag("loader", name)
+                .register(meterRegistry);
+    }
+
+    public Optional<V> load(final Long id) {
+        requests.increment();
+        CompletableFuture<Optional<V>> future;
+        Batch<V> batch = null;
+        Batch<V> full = null;
+        synchronized (this) {
+            future = inFlight.get(id);
+            if (future == null) {
+                if (current == null) {
+                    current = new Batch<>();
+                    batch = current;
+                }
+                future = new CompletableFuture<>();
+                current.futures.put(id, future);
+                inFlight.put(id, future);
+                if (current.futures.size() >= maxBatchSize) {
+                    full = current;
+                    current = null;
+                }
+            }
+        }
+
+        if (full != null) {
+            full.dispatched.countDown();
+            dispatch(full);
+        } else if (batch != null) {
+            awaitWindow(batch);
+            if (take(batch)) {
+                dispatch(batch);
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private void awaitWindow(Batch<V> batch) {
+        if (windowMillis <= 0) {
+            return;
+        }
+        try {
+            batch.dispatched.await(windowMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized boolean take(Batch<V> batch) {
+        if (current != batch) {
+            return false;
+        }
+        current = null;
+        return true;
+    }
+
+    private void dispatch(Batch<V> batch) {
+        queries.increment();
+        batchSize.record(batch.futures.size());
+        log.debug("Loading {} batch of {} ids", name, batch.futures.size());
+        try {
+            Map<Long, V> found = fetcher.apply(batch.futures.keySet());
+            batch.futures.forEach((id, future) -> future.complete(Optional.ofNullable(found.get(id))));
+        } catch (RuntimeException e) {
+            log.error("Failed to load {} batch", name, e);
+            batch.futures.values().forEach(future -> future.completeExceptionally(e));
+        } finally {
+            synchronized (this) {
+                batch.futures.forEach(inFlight::remove);
+            }
+        }
+    }
+
+    private double coalescingRatio() {
+        double count = queries.count();
+        return count == 0 ? 0 : requests.count() / count;
+    }
+
+    private static class Batch<V> {
+        private final Map<Long, CompletableFuture<Optional<V>>> futures = new LinkedHashMap<>();
+        private final CountDownLatch dispatched = new CountDownLatch(1);
+    }
+}
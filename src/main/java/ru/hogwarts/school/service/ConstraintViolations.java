@@ -0,0 +1,23 @@
+package ru.hogwarts.school.service;
+
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.Locale;
+
+final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    static boolean violates(Throwable e, String constraint) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String name = violation.getConstraintName() != null
+                        ? violation.getConstraintName()
+                        : violation.getSQLException().getMessage();
+                return name != null && name.toLowerCase(Locale.ROOT).contains(constraint);
+            }
+        }
+        return false;
+    }
+}
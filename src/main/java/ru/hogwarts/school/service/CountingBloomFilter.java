@@ -0,0 +1,95 @@
+package ru.hogwarts.school.service;
+
+import java.nio.charset.StandardCharsets;
+
+public class CountingBloomFilter {
+    private static final int MAX_COUNT = 0xFF;
+    private static final double LN2 = Math.log(2);
+
+    private final byte[] counters;
+    private final int hashes;
+    private long size;
+    private long occupied;
+
+    public CountingBloomFilter(final long expectedKeys, final double falsePositiveRate) {
+        long keys = Math.max(1, expectedKeys);
+        long bits = (long) Math.ceil(-keys * Math.log(falsePositiveRate) / (LN2 * LN2));
+        this.counters = new byte[(int) Math.min(Integer.MAX_VALUE - 8, Math.max(64, bits))];
+        this.hashes = Math.max(1, (int) Math.round((double) counters.length / keys * LN2));
+    }
+
+    public void add(final String key) {
+        long hash = hash(key);
+        for (int i = 0; i < hashes; i++) {
+            int index = index(hash, i);
+            int count = counters[index] & MAX_COUNT;
+            if (count == 0) {
+                occupied++;
+            }
+            if (count < MAX_COUNT) {
+                counters[index] = (byte) (count + 1);
+            }
+        }
+        size++;
+    }
+
+    public void remove(final String key) {
+        if (!mightContain(key)) {
+            return;
+        }
+        long hash = hash(key);
+        for (int i = 0; i < hashes; i++) {
+            int index = index(hash, i);
+            int count = counters[index] & MAX_COUNT;
+            if (count > 0 && count < MAX_COUNT) {
+                counters[index] = (byte) (count - 1);
+                if (count == 1) {
+                    occupied--;
+                }
+            }
+        }
+        size--;
+    }
+
+    public boolean mightContain(final String key) {
+        long hash = hash(key);
+        for (int i = 0; i < hashes; i++) {
+            if (counters[index(hash, i)] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long memoryBytes() {
+        return counters.length;
+    }
+
+    public double falsePositiveRate() {
+        return Math.pow((double) occupied / counters.length, hashes);
+    }
+
+    private int index(long hash, int i) {
+        int high = (int) (hash >>> 32);
+        int low = (int) hash;
+        return Math.floorMod(low + i * high, counters.length);
+    }
+
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
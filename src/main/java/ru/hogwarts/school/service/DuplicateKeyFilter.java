@@ -0,0 +1,177 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.hogwarts.school.event.FacultyChangedEvent;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class DuplicateKeyFilter implements StudentIndex {
+    @Value("${import.duplicate-filter.expected-keys}")
+    private long expectedKeys;
+    @Value("${import.duplicate-filter.false-positive-rate}")
+    private double falsePositiveRate;
+    private final Keys students;
+    private final Keys faculties;
+
+    public DuplicateKeyFilter(StudentRepository studentRepository,
+                              FacultyRepository facultyRepository,
+                              MeterRegistry meterRegistry) {
+        this.students = new Keys("students", () -> studentRepository.findAllNamesAndAges().stream()
+                .map(row -> key(row[0], row[1]))
+                .toList(), meterRegistry);
+        this.faculties = new Keys("faculties", () -> facultyRepository.findAllNamesAndColors().stream()
+                .map(row -> key(row[0], row[1]))
+                .toList(), meterRegistry);
+    }
+
+    public static String key(final Object name, final Object value) {
+        return name + "|" + value;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        log.info("Was invoked method for : {}", getMethodName());
+        students.build();
+        faculties.build();
+    }
+
+    @Override
+    public void rebuildStudents() {
+        students.build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(final StudentChangedEvent event) {
+        students.replace(event.oldName() == null ? null : key(event.oldName(), event.oldAge()),
+                event.newName() == null ? null : key(event.newName(), event.newAge()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFacultyChanged(final FacultyChangedEvent event) {
+        faculties.replace(event.oldName() == null ? null : key(event.oldName(), event.oldColor()),
+                event.newName() == null ? null : key(event.newName(), event.newColor()));
+    }
+
+    public <T> Set<String> existingStudentKeys(final List<T> values, final Function<T, String> key,
+                                               final Function<List<T>, Set<String>> query) {
+        return students.existingKeys(values, key, query);
+    }
+
+    public <T> Set<String> existingFacultyKeys(final List<T> values, final Function<T, String> key,
+                                               final Function<List<T>, Set<String>> query) {
+        return faculties.existingKeys(values, key, query);
+    }
+
+    private static String getMethodName() {
+        return convertCamelCaseToSpace(Thread.currentThread().getStackTrace()[2].getMethodName());
+    }
+
+    private static String convertCamelCaseToSpace(String camelCaseString) {
+        return camelCaseString.replaceAll("(?<=.)([A-Z])", " $1").toLowerCase();
+    }
+
+    private class Keys {
+        private final VersionedSnapshot<CountingBloomFilter> filter;
+        private final Counter skippedQueries;
+        private final Counter skippedKeys;
+        private final Counter falsePositives;
+
+        private Keys(String name, Supplier<List<String>> loader, MeterRegistry meterRegistry) {
+            this.filter = new VersionedSnapshot<>("duplicate filter for " + name, null, () -> {
+                List<String> keys = loader.get();
+                CountingBloomFilter snapshot = new CountingBloomFilter(
+                        Math.max(expectedKeys, 2L * keys.size()), falsePositiveRate);
+                keys.forEach(snapshot::add);
+                return snapshot;
+            });
+            this.skippedQueries = Counter.builder("duplicate.filter.skipped.queries")
+                    .description("Existence queries skipped because no key could be present")
+                    .tag("filter", name)
+                    .register(meterRegistry);
+            this.skippedKeys = Counter.builder("duplicate.filter.skipped.keys")
+                    .description("Keys left out of existence queries as definitely absent")
+                    .tag("filter", name)
+                    .register(meterRegistry);
+            this.falsePositives = Counter.builder("duplicate.filter.false.positives")
+                    .description("Keys reported as possibly present that the database did not hold")
+                    .tag("filter", name)
+                    .register(meterRegistry);
+            Gauge.builder("duplicate.filter.false.positive.rate", this, keys -> keys.read(CountingBloomFilter::falsePositiveRate))
+                    .description("Expected false-positive rate at the current fill")
+                    .tag("filter", name)
+                    .register(meterRegistry);
+            Gauge.builder("duplicate.filter.memory", this, keys -> keys.read(CountingBloomFilter::memoryBytes))
+                    .description("Memory held by the filter counters")
+                    .baseUnit("bytes")
+                    .tag("filter", name)
+                    .register(meterRegistry);
+            Gauge.builder("duplicate.filter.keys", this, keys -> keys.read(CountingBloomFilter::size))
+                    .description("Keys tracked by the filter")
+                    .tag("filter", name)
+                    .register(meterRegistry);
+        }
+
+        private void build() {
+            filter.build();
+        }
+
+        private void replace(String oldKey, String newKey) {
+            filter.update(current -> {
+                if (current == null || Objects.equals(oldKey, newKey)) {
+                    return;
+                }
+                if (oldKey != null) {
+                    current.remove(oldKey);
+                }
+                if (newKey != null) {
+                    current.add(newKey);
+                }
+            });
+        }
+
+        private <T> Set<String> existingKeys(List<T> values, Function<T, String> key,
+                                             Function<List<T>, Set<String>> query) {
+            List<T> candidates = filter.read(current -> current == null ? null : values.stream()
+                    .filter(value -> current.mightContain(key.apply(value)))
+                    .toList());
+            if (candidates == null) {
+                return query.apply(values);
+            }
+            skippedKeys.increment(values.size() - candidates.size());
+            if (candidates.isEmpty()) {
+                skippedQueries.increment();
+                return Set.of();
+            }
+
+            Set<String> existing = query.apply(candidates);
+            falsePositives.increment(candidates.stream()
+                    .map(key)
+                    .filter(candidate -> !existing.contains(candidate))
+                    .collect(Collectors.toSet())
+                    .size());
+            return existing;
+        }
+
+        private double read(Function<CountingBloomFilter, Number> metric) {
+            return filter.read(current -> current == null ? 0 : metric.apply(current).doubleValue());
+        }
+    }
+}
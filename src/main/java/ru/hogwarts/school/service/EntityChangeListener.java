@@ -0,0 +1,102 @@
+package ru.hogwarts.school.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.event.FacultyChangedEvent;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import java.util.Objects;
+
+@Component
+@RequiredArgsConstructor
+public class EntityChangeListener implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener {
+    private static final String NAME = "name";
+    private static final String AGE = "age";
+    private static final String COLOR = "color";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Student student) {
+            eventPublisher.publishEvent(new StudentChangedEvent(student.getId(), null, null,
+                    student.getName(), student.getAge()));
+        } else if (event.getEntity() instanceof Faculty faculty) {
+            eventPublisher.publishEvent(new FacultyChangedEvent(faculty.getId(), null, null,
+                    faculty.getName(), faculty.getColor()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            return;
+        }
+        if (event.getEntity() instanceof Student student) {
+            String oldName = (String) property(event.getPersister(), oldState, NAME);
+            Integer oldAge = (Integer) property(event.getPersister(), oldState, AGE);
+            if (!Objects.equals(oldName, student.getName()) || !Objects.equals(oldAge, student.getAge())) {
+                eventPublisher.publishEvent(new StudentChangedEvent(student.getId(), oldName, oldAge,
+                        student.getName(), student.getAge()));
+            }
+        } else if (event.getEntity() instanceof Faculty faculty) {
+            String oldName = (String) property(event.getPersister(), oldState, NAME);
+            String oldColor = (String) property(event.getPersister(), oldState, COLOR);
+            if (!Objects.equals(oldName, faculty.getName()) || !Objects.equals(oldColor, faculty.getColor())) {
+                eventPublisher.publishEvent(new FacultyChangedEvent(faculty.getId(), oldName, oldColor,
+                        faculty.getName(), faculty.getColor()));
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Object[] deletedState = event.getDeletedState();
+        if (event.getEntity() instanceof Student student) {
+            eventPublisher.publishEvent(new StudentChangedEvent(student.getId(),
+                    (String) property(event.getPersister(), deletedState, NAME),
+                    (Integer) property(event.getPersister(), deletedState, AGE), null, null));
+        } else if (event.getEntity() instanceof Faculty faculty) {
+            eventPublisher.publishEvent(new FacultyChangedEvent(faculty.getId(),
+                    (String) property(event.getPersister(), deletedState, NAME),
+                    (String) property(event.getPersister(), deletedState, COLOR), null, null));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private static Object property(EntityPersister persister, Object[] state, String name) {
+        return state[persister.getPropertyIndex(name)];
+    }
+}
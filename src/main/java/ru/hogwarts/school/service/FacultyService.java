@@ -3,31 +3,52 @@ package ru.hogwarts.school.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.dto.CursorPageDto;
+import ru.hogwarts.school.dto.FacultyPatchDto;
 import ru.hogwarts.school.dto.FacultyRequestDto;
 import ru.hogwarts.school.dto.FacultyResponseDto;
+import ru.hogwarts.school.dto.StudentFacultyDto;
+import ru.hogwarts.school.dto.StudentRefDto;
+import ru.hogwarts.school.dto.VersionedDto;
 import ru.hogwarts.school.exceptions.EmptyStringException;
 import ru.hogwarts.school.exceptions.FacultyAlreadyExistsException;
 import ru.hogwarts.school.exceptions.FacultyNotFoundException;
 import ru.hogwarts.school.exceptions.InvalidFacultySearchException;
+import ru.hogwarts.school.exceptions.VersionConflictException;
 import ru.hogwarts.school.mapper.FacultyMapper;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.repository.FacultyRepository;
 
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
 
 @Slf4j
 @Service
-@Transactional
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class FacultyService {
+    private static final String CONFLICT_MESSAGE = "Факультет был изменён другим запросом";
 
     private final FacultyMapper facultyMapper;
     private final FacultyRepository facultyRepository;
+    @Value("${pagination.max-size}")
+    private int maxBatchSize;
+    private final KeysetPagination keysetPagination;
+    private final BatchLoader<VersionedDto<FacultyResponseDto>> facultyLoader;
+    private final OptimisticRetry optimisticRetry;
 
+    @Transactional
     public FacultyResponseDto addFaculty(final FacultyRequestDto dto) {
         log.info("Was invoked method for : {}", getMethodName());
         validateString(dto.name());
@@ -35,35 +56,38 @@ public class FacultyService {
         validateString(dto.color());
         log.debug("Faculty color verification passed");
 
-        if (facultyRepository.existsFacultyByNameAndColor(StringUtils.capitalize(dto.name()),
-                StringUtils.capitalize(dto.color()))) {
-            log.warn("Faculty with the name \"{}\" already exists", dto.name());
-            throw new FacultyAlreadyExistsException("Такой факультет уже существует");
-        }
-
         var faculty = facultyMapper.toEntity(dto);
         log.debug("Saving faculty : {}", faculty.getName());
 
         try {
-            return facultyMapper.toDto(facultyRepository.save(faculty));
+            return facultyMapper.toDto(facultyRepository.saveAndFlush(faculty));
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolations.violates(e, Faculty.NAME_COLOR_UNIQUE)) {
+                log.error("Failed to save faculty", e);
+                throw e;
+            }
+            log.warn("Faculty with the name \"{}\" already exists", dto.name());
+            throw new FacultyAlreadyExistsException("Такой факультет уже существует");
         } catch (Exception e) {
             log.error("Failed to save faculty", e);
             throw e;
         }
     }
 
-    public FacultyResponseDto getFacultyById(final Long id) {
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public VersionedDto<FacultyResponseDto> getFacultyById(final Long id) {
         log.info("Was invoked method for : {}", getMethodName());
         log.debug("Getting faculty by ID : {}", id);
 
-        return facultyMapper.toDto(facultyRepository.findById(id)
+        return facultyLoader.load(id)
                 .orElseThrow(() -> {
                     log.error("Faculty not found with ID : {}", id);
                     return new FacultyNotFoundException("Отсутствует факультет по данному ИД");
-                }));
+                });
 
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public FacultyResponseDto changeFaculty(final Long id, final FacultyRequestDto dto) {
         log.info("Was invoked method for : {}", getMethodName());
         validateString(dto.name());
@@ -71,22 +95,28 @@ public class FacultyService {
         validateString(dto.color());
         log.debug("Faculty color verification passed");
 
-        if (!facultyRepository.existsById(id)) {
-            log.error("Faculty not found with ID : {}", id);
-            throw new FacultyNotFoundException("Факультет не найден");
-        }
-
-        var faculty = facultyMapper.toEntity(dto);
-        log.debug("Changing faculty with ID : {}", faculty.getId());
+        return optimisticRetry.execute(true, CONFLICT_MESSAGE,
+                () -> applyPatch(id, new FacultyPatchDto(dto.name(), dto.color()), null)).value();
+    }
 
-        try {
-            return facultyMapper.toDto(facultyRepository.save(faculty));
-        } catch (Exception e) {
-            log.error("Failed to changing faculty", e);
-            throw e;
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public VersionedDto<FacultyResponseDto> patchFaculty(final Long id, final FacultyPatchDto dto,
+                                                         final Long expectedVersion) {
+        log.info("Was invoked method for : {}", getMethodName());
+        if (dto.name() != null) {
+            validateString(dto.name());
+            log.debug("Faculty name verification passed");
+        }
+        if (dto.color() != null) {
+            validateString(dto.color());
+            log.debug("Faculty color verification passed");
         }
+
+        return optimisticRetry.execute(expectedVersion == null, CONFLICT_MESSAGE,
+                () -> applyPatch(id, dto, expectedVersion));
     }
 
+    @Transactional
     public void removeFacultyById(final Long id) {
         log.info("Was invoked method for : {}", getMethodName());
         if (!facultyRepository.existsById(id)) {
@@ -102,17 +132,20 @@ public class FacultyService {
         }
     }
 
-    public List<FacultyResponseDto> getFacultiesByColor(final String color) {
+    public CursorPageDto<FacultyResponseDto> getFacultiesByColor(final String color, final String cursor,
+                                                                 final Integer size) {
         log.info("Was invoked method for : {}", getMethodName());
         validateString(color);
         log.debug("Faculty color verification passed");
 
-        var faculties = facultyRepository.findAllByColor(color);
-        if (faculties.isEmpty()) {
+        int pageSize = keysetPagination.pageSize(size);
+        long afterId = cursor == null ? 0 : keysetPagination.decode(cursor, 1)[0];
+        var faculties = facultyRepository.findAllByColor(color, afterId, keysetPagination.limit(pageSize));
+        if (faculties.isEmpty() && cursor == null) {
             log.error("Faculty not found with color : {}", color);
             throw new FacultyNotFoundException("Факультеты с данным цветом не найдены");
         }
-        return facultyMapper.toDto(faculties);
+        return keysetPagination.page(facultyMapper.toDto(faculties), pageSize, faculty -> new long[]{faculty.id()});
     }
 
     public FacultyResponseDto getFacultyByColorOrName(final String string) {
@@ -138,11 +171,11 @@ public class FacultyService {
             log.debug("Search for faculty by id or name");
 
             return facultyMapper.toDto(facultyRepository.findByStudentsId(id)
-                    .orElse(facultyRepository.findByStudentsName(name)
-                            .orElseThrow(() -> {
-                                log.error("Faculty not found with student ID : {} or student name : {}", id, name);
-                                return new FacultyNotFoundException("Отсутствует факультет по данному ИД студента или имени студента");
-                            })));
+                    .or(() -> facultyRepository.findByStudentsName(name))
+                    .orElseThrow(() -> {
+                        log.error("Faculty not found with student ID : {} or student name : {}", id, name);
+                        return new FacultyNotFoundException("Отсутствует факультет по данному ИД студента или имени студента");
+                    }));
         } else if (id != null) {
             log.debug("Search for faculty by id");
 
@@ -190,6 +223,74 @@ public class FacultyService {
         }
     }
 
+    public List<StudentFacultyDto> getFacultiesByStudents(final List<StudentRefDto> students) {
+        log.info("Was invoked method for : {}", getMethodName());
+        if (students == null || students.isEmpty()
+                || students.stream().anyMatch(student -> student == null || student.id() == null && student.name() == null)) {
+            throw new InvalidFacultySearchException("Не указан ни ИД студента, ни имя студента");
+        }
+        if (students.size() > maxBatchSize) {
+            throw new InvalidFacultySearchException("Слишком много студентов в запросе, максимум : " + maxBatchSize);
+        }
+
+        Set<Long> ids = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        students.forEach(student -> {
+            if (student.id() != null) {
+                ids.add(student.id());
+            }
+            if (student.name() != null) {
+                names.add(student.name());
+            }
+        });
+        log.debug("Search for faculties of {} students by {} ids and {} names", students.size(), ids.size(), names.size());
+
+        Map<Long, StudentFacultyDto> byId = new HashMap<>();
+        Map<String, StudentFacultyDto> byName = new HashMap<>();
+        for (Object[] row : facultyRepository.findByStudentsIdInOrStudentsNameIn(ids, names)) {
+            StudentFacultyDto found = new StudentFacultyDto((Long) row[0], (String) row[1],
+                    facultyMapper.toDto((Faculty) row[2]));
+            byId.put(found.studentId(), found);
+            byName.putIfAbsent(found.studentName(), found);
+        }
+
+        return students.stream()
+                .map(student -> Optional.ofNullable(student.id()).map(byId::get)
+                        .or(() -> Optional.ofNullable(student.name()).map(byName::get))
+                        .orElse(new StudentFacultyDto(student.id(), student.name(), null)))
+                .toList();
+    }
+
+    private VersionedDto<FacultyResponseDto> applyPatch(Long id, FacultyPatchDto dto, Long expectedVersion) {
+        var faculty = facultyRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.error("Faculty not found with ID : {}", id);
+                    return new FacultyNotFoundException("Факультет не найден");
+                });
+        if (expectedVersion != null && !expectedVersion.equals(faculty.getVersion())) {
+            log.warn("Faculty with ID : {} has version {}, expected {}", id, faculty.getVersion(), expectedVersion);
+            throw new VersionConflictException(CONFLICT_MESSAGE);
+        }
+
+        log.debug("Changing faculty with ID : {}", id);
+        if (dto.name() != null) {
+            faculty.setName(StringUtils.capitalize(dto.name()));
+        }
+        if (dto.color() != null) {
+            faculty.setColor(dto.color());
+        }
+        try {
+            facultyRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolations.violates(e, Faculty.NAME_COLOR_UNIQUE)) {
+                throw e;
+            }
+            log.warn("Faculty with the name \"{}\" already exists", faculty.getName());
+            throw new FacultyAlreadyExistsException("Такой факультет уже существует");
+        }
+        return new VersionedDto<>(facultyMapper.toDto(faculty), faculty.getVersion());
+    }
+
     private static String getMethodName() {
         return convertCamelCaseToSpace(Thread.currentThread().getStackTrace()[2].getMethodName());
     }
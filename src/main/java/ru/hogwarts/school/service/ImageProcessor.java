@@ -0,0 +1,111 @@
+package ru.hogwarts.school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.exceptions.ImageTooLargeException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+@Slf4j
+@Component
+public class ImageProcessor {
+    private final long maxPixels;
+    private final long maxDecodedPixels;
+
+    public ImageProcessor(@Value("${avatar.image.max-pixels}") long maxPixels,
+                          @Value("${avatar.image.max-decoded-pixels}") long maxDecodedPixels) {
+        this.maxPixels = maxPixels;
+        this.maxDecodedPixels = maxDecodedPixels;
+    }
+
+    public void validate(final InputStream is) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(is)) {
+            ImageReader reader = findReader(iis);
+            if (reader == null) {
+                log.debug("Skipping validation of unsupported image format");
+                return;
+            }
+            try {
+                checkPixels(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    public BufferedImage decode(final InputStream is, final int targetWidth) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(is)) {
+            ImageReader reader = findReader(iis);
+            if (reader == null) {
+                throw new IOException("Unsupported image format");
+            }
+            try {
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                checkPixels(width, height);
+
+                int step = subsampling(width, height, targetWidth);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                log.debug("Decoding {}x{} image with subsampling : {}", width, height, step);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    public BufferedImage scaleToWidth(final BufferedImage image, final int width) {
+        int previewWidth = Math.min(width, image.getWidth());
+        int height = Math.max(1, (int) ((long) image.getHeight() * previewWidth / image.getWidth()));
+        BufferedImage preview = new BufferedImage(previewWidth, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = preview.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, previewWidth, height, null);
+        graphics.dispose();
+        return preview;
+    }
+
+    private int subsampling(int width, int height, int targetWidth) {
+        int step = Math.max(1, width / Math.max(1, targetWidth));
+        long decodedPixels = (long) ceilDiv(width, step) * ceilDiv(height, step);
+        while (decodedPixels > maxDecodedPixels) {
+            step++;
+            decodedPixels = (long) ceilDiv(width, step) * ceilDiv(height, step);
+        }
+        return step;
+    }
+
+    private void checkPixels(int width, int height) {
+        if ((long) width * height > maxPixels) {
+            log.error("Image exceeds pixel budget : {}x{}", width, height);
+            throw new ImageTooLargeException("Изображение превышает допустимое количество пикселей");
+        }
+    }
+
+    private static ImageReader findReader(ImageInputStream iis) {
+        if (iis == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(iis, true, true);
+        return reader;
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
@@ -0,0 +1,269 @@
+package ru.hogwarts.school.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.dto.FacultyRequestDto;
+import ru.hogwarts.school.dto.ImportErrorDto;
+import ru.hogwarts.school.dto.ImportReportDto;
+import ru.hogwarts.school.dto.StudentRequestDto;
+import ru.hogwarts.school.exceptions.EmptyStringException;
+import ru.hogwarts.school.exceptions.WrongStudentAgeException;
+import ru.hogwarts.school.mapper.FacultyMapper;
+import ru.hogwarts.school.mapper.StudentMapper;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImportService {
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    @Value("${import.batch-size}")
+    private int batchSize;
+    @Value("${import.max-errors}")
+    private int maxErrors;
+    private final StudentRepository studentRepository;
+    private final FacultyRepository facultyRepository;
+    private final StudentMapper studentMapper;
+    private final FacultyMapper facultyMapper;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final DuplicateKeyFilter duplicateKeyFilter;
+
+    public ImportReportDto importStudents(final InputStream is, final String contentType) throws IOException {
+        log.info("Was invoked method for : {}", getMethodName());
+        return importRows(is, contentType, new Importer<>(
+                StudentRequestDto.class,
+                Student.NAME_AGE_UNIQUE,
+                dto -> {
+                    validateString(dto.name());
+                    validateAge(dto.age());
+                },
+                dto -> DuplicateKeyFilter.key(StringUtils.capitalize(dto.name()), dto.age()),
+                (dtos, key) -> duplicateKeyFilter.existingStudentKeys(dtos, key, candidates ->
+                        studentRepository.findNameAndAgeByNameIn(names(candidates, StudentRequestDto::name)).stream()
+                                .map(row -> DuplicateKeyFilter.key(row[0], row[1]))
+                                .collect(Collectors.toSet())),
+                dtos -> studentRepository.saveAll(dtos.stream().map(studentMapper::toEntity).toList())));
+    }
+
+    public ImportReportDto importFaculties(final InputStream is, final String contentType) throws IOException {
+        log.info("Was invoked method for : {}", getMethodName());
+        return importRows(is, contentType, new Importer<>(
+                FacultyRequestDto.class,
+                Faculty.NAME_COLOR_UNIQUE,
+                dto -> {
+                    validateString(dto.name());
+                    validateString(dto.color());
+                },
+                dto -> DuplicateKeyFilter.key(StringUtils.capitalize(dto.name()), dto.color()),
+                (dtos, key) -> duplicateKeyFilter.existingFacultyKeys(dtos, key, candidates ->
+                        facultyRepository.findNameAndColorByNameIn(names(candidates, FacultyRequestDto::name)).stream()
+                                .map(row -> DuplicateKeyFilter.key(row[0], row[1]))
+                                .collect(Collectors.toSet())),
+                dtos -> facultyRepository.saveAll(dtos.stream().map(facultyMapper::toEntity).toList())));
+    }
+
+    private <T> ImportReportDto importRows(InputStream is, String contentType, Importer<T> importer) throws IOException {
+        long started = System.nanoTime();
+        boolean csv = contentType != null && TEXT_CSV.isCompatibleWith(MediaType.parseMediaType(contentType));
+        Report report = new Report();
+        Set<String> seen = new HashSet<>();
+        List<Row<T>> chunk = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+            String[] header = null;
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (csv && header == null) {
+                    header = StringUtils.stripAll(line.split(","));
+                    continue;
+                }
+                report.total++;
+                try {
+                    T value = csv
+                            ? objectMapper.convertValue(toMap(header, line), importer.type())
+                            : objectMapper.readValue(line, importer.type());
+                    importer.validator().accept(value);
+                    chunk.add(new Row<>(lineNumber, value));
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    report.fail(lineNumber, "Некорректная строка");
+                } catch (RuntimeException e) {
+                    report.fail(lineNumber, e.getMessage());
+                }
+                if (chunk.size() >= batchSize) {
+                    writeChunk(chunk, importer, seen, report);
+                    chunk.clear();
+                }
+            }
+        }
+        writeChunk(chunk, importer, seen, report);
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        double rowsPerSecond = report.total * 1000.0 / Math.max(1, elapsedMillis);
+        log.info("Imported {} of {} {} rows in {} ms ({} rows/s)", report.imported, report.total,
+                importer.type().getSimpleName(), elapsedMillis, (long) rowsPerSecond);
+        return new ImportReportDto(report.total, report.imported, report.duplicates, report.failed,
+                elapsedMillis, rowsPerSecond, report.errors);
+    }
+
+    private <T> void writeChunk(List<Row<T>> chunk, Importer<T> importer, Set<String> seen, Report report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            persist(chunk, importer, seen, report);
+        } catch (RuntimeException e) {
+            log.warn("Failed to import chunk of {} rows, retrying row by row", chunk.size(), e);
+            for (Row<T> row : chunk) {
+                try {
+                    persist(List.of(row), importer, seen, report);
+                } catch (RuntimeException rowException) {
+                    if (ConstraintViolations.violates(rowException, importer.uniqueConstraint())) {
+                        report.duplicate(row.line());
+                    } else {
+                        log.error("Failed to import row : {}", row.line(), rowException);
+                        report.fail(row.line(), "Ошибка сохранения строки");
+                    }
+                }
+            }
+        }
+    }
+
+    private <T> void persist(List<Row<T>> rows, Importer<T> importer, Set<String> seen, Report report) {
+        List<Long> duplicates = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<T> values = rows.stream().map(Row::value).toList();
+            Set<String> existing = importer.existingKeys().apply(values, importer.key());
+            List<T> fresh = new ArrayList<>();
+            for (Row<T> row : rows) {
+                String key = importer.key().apply(row.value());
+                if (seen.contains(key) || existing.contains(key) || !keys.add(key)) {
+                    duplicates.add(row.line());
+                } else {
+                    fresh.add(row.value());
+                }
+            }
+            importer.persist().accept(fresh);
+            entityManager.flush();
+            entityManager.clear();
+        });
+        seen.addAll(keys);
+        report.imported += keys.size();
+        duplicates.forEach(line -> report.duplicate(line));
+    }
+
+    private Map<String, String> toMap(String[] header, String line) {
+        String[] values = StringUtils.stripAll(line.split(",", -1));
+        if (values.length != header.length) {
+            throw new IllegalArgumentException("Unexpected column count");
+        }
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            row.put(header[i], values[i]);
+        }
+        return row;
+    }
+
+    private static <T> Set<String> names(List<T> values, Function<T, String> name) {
+        return values.stream()
+                .map(name)
+                .map(StringUtils::capitalize)
+                .collect(Collectors.toSet());
+    }
+
+    private void validateString(String string) {
+        if (!StringUtils.isAlpha(string)) {
+            throw new EmptyStringException("Запрос может содержать только буквы");
+        }
+    }
+
+    private void validateAge(Integer age) {
+        if (age == null || age <= 0) {
+            throw new WrongStudentAgeException("Возраст не может быть меньше 0");
+        }
+    }
+
+    private static String getMethodName() {
+        return convertCamelCaseToSpace(Thread.currentThread().getStackTrace()[2].getMethodName());
+    }
+
+    private static String convertCamelCaseToSpace(String camelCaseString) {
+        return camelCaseString.replaceAll("(?<=.)([A-Z])", " $1").toLowerCase();
+    }
+
+    private class Report {
+        private long total;
+        private long imported;
+        private long duplicates;
+        private long failed;
+        private final List<ImportErrorDto> errors = new ArrayList<>();
+
+        void fail(long line, String message) {
+            failed++;
+            addError(line, message);
+        }
+
+        void duplicate(long line) {
+            duplicates++;
+            addError(line, "Запись уже существует");
+        }
+
+        private void addError(long line, String message) {
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportErrorDto(line, message));
+            }
+        }
+    }
+
+    private record Row<T>(
+            long line,
+            T value
+    ) {
+    }
+
+    private record Importer<T>(
+            Class<T> type,
+            String uniqueConstraint,
+            Consumer<T> validator,
+            Function<T, String> key,
+            BiFunction<List<T>, Function<T, String>, Set<String>> existingKeys,
+            Consumer<List<T>> persist
+    ) {
+    }
+}
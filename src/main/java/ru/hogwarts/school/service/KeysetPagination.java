@@ -0,0 +1,75 @@
+package ru.hogwarts.school.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.dto.CursorPageDto;
+import ru.hogwarts.school.exceptions.WrongPageCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+@Component
+public class KeysetPagination {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final String SEPARATOR = ":";
+
+    @Value("${pagination.default-size}")
+    private int defaultSize;
+    @Value("${pagination.max-size}")
+    private int maxSize;
+
+    public int pageSize(final Integer size) {
+        if (size == null) {
+            return defaultSize;
+        }
+        if (size <= 0) {
+            throw new WrongPageCursorException("Размер страницы должен быть больше 0");
+        }
+        return Math.min(size, maxSize);
+    }
+
+    public Pageable limit(final int pageSize) {
+        return PageRequest.ofSize(pageSize + 1);
+    }
+
+    public long[] decode(final String cursor, final int keys) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(SEPARATOR);
+            if (parts.length != keys) {
+                throw new IllegalArgumentException("Expected " + keys + " keys in cursor");
+            }
+            long[] values = new long[keys];
+            for (int i = 0; i < keys; i++) {
+                values[i] = Long.parseLong(parts[i]);
+            }
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw new WrongPageCursorException("Некорректный курсор страницы");
+        }
+    }
+
+    public <T> CursorPageDto<T> page(final List<T> rows, final int pageSize, final Function<T, long[]> key) {
+        if (rows.size() <= pageSize) {
+            return new CursorPageDto<>(rows, null);
+        }
+        List<T> content = rows.subList(0, pageSize);
+        return new CursorPageDto<>(content, encode(key.apply(content.get(pageSize - 1))));
+    }
+
+    private static String encode(long[] keys) {
+        StringBuilder sb = new StringBuilder();
+        for (long key : keys) {
+            if (!sb.isEmpty()) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(key);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,50 @@
+package ru.hogwarts.school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.exceptions.VersionConflictException;
+import ru.hogwarts.school.exceptions.WrongVersionException;
+
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class OptimisticRetry {
+    @Value("${patch.max-retries}")
+    private int maxRetries;
+    private final TransactionTemplate transactionTemplate;
+
+    public OptimisticRetry(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public static Long version(final String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(ifMatch.strip().replaceFirst("^W/", "").replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new WrongVersionException("Некорректная версия в заголовке If-Match");
+        }
+    }
+
+    public <T> T execute(final boolean idempotent, final String conflictMessage, final Supplier<T> update) {
+        int attempts = idempotent ? maxRetries + 1 : 1;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> update.get());
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (attempt >= attempts) {
+                    log.warn("Optimistic lock conflict after {} attempts : {}", attempt, e.getMessage());
+                    throw new VersionConflictException(conflictMessage);
+                }
+                log.debug("Optimistic lock conflict, retrying attempt {} of {}", attempt + 1, attempts);
+            }
+        }
+    }
+}
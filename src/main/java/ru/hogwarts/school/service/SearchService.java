@@ -0,0 +1,180 @@
+package ru.hogwarts.school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.hogwarts.school.dto.SearchResultDto;
+import ru.hogwarts.school.dto.SearchResultDto.Type;
+import ru.hogwarts.school.event.FacultyChangedEvent;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.exceptions.EmptyStringException;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+@Service
+public class SearchService implements StudentIndex {
+    private static final String NAME = "name";
+    private static final String COLOR = "color";
+
+    @Value("${search.similarity-threshold}")
+    private double similarityThreshold;
+    private final KeysetPagination keysetPagination;
+    private final VersionedSnapshot<Index> index;
+
+    public SearchService(StudentRepository studentRepository,
+                         FacultyRepository facultyRepository,
+                         KeysetPagination keysetPagination) {
+        this.keysetPagination = keysetPagination;
+        this.index = new VersionedSnapshot<>("search index", new Index(), () -> {
+            Index snapshot = new Index();
+            for (Object[] row : studentRepository.findAllIdsAndNames()) {
+                snapshot.put(new FieldKey(Type.STUDENT, (Long) row[0], NAME), (String) row[1]);
+            }
+            for (Faculty faculty : facultyRepository.findAll()) {
+                snapshot.put(new FieldKey(Type.FACULTY, faculty.getId(), NAME), faculty.getName());
+                snapshot.put(new FieldKey(Type.FACULTY, faculty.getId(), COLOR), faculty.getColor());
+            }
+            return snapshot;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        log.info("Was invoked method for : {}", getMethodName());
+        index.build();
+    }
+
+    @Override
+    public void rebuildStudents() {
+        build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(final StudentChangedEvent event) {
+        update(new FieldKey(Type.STUDENT, event.id(), NAME), event.newName());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFacultyChanged(final FacultyChangedEvent event) {
+        update(new FieldKey(Type.FACULTY, event.id(), NAME), event.newName());
+        update(new FieldKey(Type.FACULTY, event.id(), COLOR), event.newColor());
+    }
+
+    public List<SearchResultDto> search(final String query, final Integer limit) {
+        log.info("Was invoked method for : {}", getMethodName());
+        if (StringUtils.isBlank(query)) {
+            throw new EmptyStringException("Поисковый запрос не может быть пустым");
+        }
+        int size = keysetPagination.pageSize(limit);
+        Set<String> queryTrigrams = trigrams(query);
+
+        Map<FieldKey, Integer> shared = new HashMap<>();
+        Map<EntityKey, SearchResultDto> best = new HashMap<>();
+        index.read(current -> {
+            for (String trigram : queryTrigrams) {
+                for (FieldKey key : current.postings.getOrDefault(trigram, Set.of())) {
+                    shared.merge(key, 1, Integer::sum);
+                }
+            }
+            shared.forEach((key, common) -> {
+                Field field = current.fields.get(key);
+                double score = (double) common / (queryTrigrams.size() + field.trigrams().size() - common);
+                if (score >= similarityThreshold) {
+                    best.merge(new EntityKey(key.type(), key.id()),
+                            new SearchResultDto(key.type(), key.id(), key.field(), field.value(), score),
+                            (left, right) -> left.score() >= right.score() ? left : right);
+                }
+            });
+            return best;
+        });
+
+        log.debug("Search for \"{}\" matched {} entities", query, best.size());
+        return best.values().stream()
+                .sorted(Comparator.comparing(SearchResultDto::score).reversed()
+                        .thenComparing(SearchResultDto::value)
+                        .thenComparing(SearchResultDto::id))
+                .limit(size)
+                .toList();
+    }
+
+    static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        for (String word : StudentNameIndex.fold(text).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    private void update(FieldKey key, String value) {
+        index.update(current -> {
+            current.remove(key);
+            current.put(key, value);
+        });
+    }
+
+    private static String getMethodName() {
+        return convertCamelCaseToSpace(Thread.currentThread().getStackTrace()[2].getMethodName());
+    }
+
+    private static String convertCamelCaseToSpace(String camelCaseString) {
+        return camelCaseString.replaceAll("(?<=.)([A-Z])", " $1").toLowerCase();
+    }
+
+    private static class Index {
+        private final Map<String, Set<FieldKey>> postings = new HashMap<>();
+        private final Map<FieldKey, Field> fields = new HashMap<>();
+
+        private void put(FieldKey key, String value) {
+            if (StringUtils.isBlank(value)) {
+                return;
+            }
+            Field field = new Field(value, trigrams(value));
+            fields.put(key, field);
+            for (String trigram : field.trigrams()) {
+                postings.computeIfAbsent(trigram, t -> new HashSet<>()).add(key);
+            }
+        }
+
+        private void remove(FieldKey key) {
+            Field field = fields.remove(key);
+            if (field == null) {
+                return;
+            }
+            for (String trigram : field.trigrams()) {
+                Set<FieldKey> keys = postings.get(trigram);
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    private record FieldKey(Type type, long id, String field) {
+    }
+
+    private record EntityKey(Type type, long id) {
+    }
+
+    private record Field(String value, Set<String> trigrams) {
+    }
+}
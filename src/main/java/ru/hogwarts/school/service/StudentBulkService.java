@@ -0,0 +1,179 @@
+package ru.hogwarts.school.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.criteria.CommonAbstractCriteria;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.dto.BulkResultDto;
+import ru.hogwarts.school.dto.StudentFilterDto;
+import ru.hogwarts.school.dto.StudentMoveDto;
+import ru.hogwarts.school.dto.StudentReageDto;
+import ru.hogwarts.school.event.StudentsBulkChangedEvent;
+import ru.hogwarts.school.exceptions.FacultyNotFoundException;
+import ru.hogwarts.school.exceptions.StudentAlreadyExistsException;
+import ru.hogwarts.school.exceptions.WrongStudentAgeException;
+import ru.hogwarts.school.exceptions.WrongStudentFilterException;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class StudentBulkService {
+    private final EntityManager entityManager;
+    private final FacultyRepository facultyRepository;
+    private final AvatarBlobService avatarBlobService;
+    private final AvatarCache avatarCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BulkResultDto moveStudents(final StudentMoveDto dto) {
+        log.info("Was invoked method for : {}", getMethodName());
+        validateFilter(dto.filter());
+        Faculty faculty = facultyRepository.findById(dto.facultyId())
+                .orElseThrow(() -> {
+                    log.error("Faculty not found with ID : {}", dto.facultyId());
+                    return new FacultyNotFoundException("Факультет не найден");
+                });
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Student> update = cb.createCriteriaUpdate(Student.class);
+        Root<Student> student = update.from(Student.class);
+        update.set(student.get("faculty"), faculty)
+                .set(student.<Long>get("version"), cb.sum(student.get("version"), 1L))
+                .where(filter(cb, student, dto.filter()));
+
+        int moved = entityManager.createQuery(update).executeUpdate();
+        log.debug("Moved {} students to faculty with ID : {}", moved, faculty.getId());
+        return published("move", new BulkResultDto(moved, 0));
+    }
+
+    public BulkResultDto reageStudents(final StudentReageDto dto) {
+        log.info("Was invoked method for : {}", getMethodName());
+        validateFilter(dto.filter());
+        if (dto.delta() == null || dto.delta() == 0) {
+            throw new WrongStudentAgeException("Изменение возраста не может быть равно 0");
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Student> update = cb.createCriteriaUpdate(Student.class);
+        Root<Student> student = update.from(Student.class);
+        update.set(student.<Integer>get("age"), cb.sum(student.get("age"), dto.delta()))
+                .set(student.<Long>get("version"), cb.sum(student.get("version"), 1L))
+                .where(filter(cb, student, dto.filter()), cb.gt(student.get("age"), -dto.delta()));
+
+        try {
+            int changed = entityManager.createQuery(update).executeUpdate();
+            log.debug("Changed age of {} students by {}", changed, dto.delta());
+            return published("age", new BulkResultDto(changed, 0));
+        } catch (PersistenceException e) {
+            if (!ConstraintViolations.violates(e, Student.NAME_AGE_UNIQUE)) {
+                throw e;
+            }
+            log.warn("Changing age by {} would duplicate students", dto.delta());
+            throw new StudentAlreadyExistsException("Такой студент уже существует");
+        }
+    }
+
+    public BulkResultDto deleteStudents(final StudentFilterDto filter) {
+        log.info("Was invoked method for : {}", getMethodName());
+        validateFilter(filter);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Avatar> avatar = query.from(Avatar.class);
+        query.multiselect(avatar.get("id"), avatar.get("blob").get("id"))
+                .where(avatar.get("student").get("id").in(matching(cb, query, filter)));
+        List<Object[]> avatars = entityManager.createQuery(query).getResultList();
+
+        int deletedAvatars = 0;
+        if (!avatars.isEmpty()) {
+            CriteriaDelete<Avatar> deleteAvatars = cb.createCriteriaDelete(Avatar.class);
+            Root<Avatar> deleted = deleteAvatars.from(Avatar.class);
+            deleteAvatars.where(deleted.get("student").get("id").in(matching(cb, deleteAvatars, filter)));
+            deletedAvatars = entityManager.createQuery(deleteAvatars).executeUpdate();
+        }
+
+        CriteriaDelete<Student> deleteStudents = cb.createCriteriaDelete(Student.class);
+        Root<Student> student = deleteStudents.from(Student.class);
+        deleteStudents.where(filter(cb, student, filter));
+        int deletedStudents = entityManager.createQuery(deleteStudents).executeUpdate();
+
+        Map<Long, Long> blobReferences = avatars.stream()
+                .map(row -> (Long) row[1])
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(id -> id, Collectors.counting()));
+        blobReferences.forEach((blobId, references) -> avatarBlobService.release(blobId, references.intValue()));
+        avatars.forEach(row -> avatarCache.invalidate((Long) row[0]));
+
+        log.debug("Deleted {} students and {} avatars", deletedStudents, deletedAvatars);
+        return published("delete", new BulkResultDto(deletedStudents, deletedAvatars));
+    }
+
+    private BulkResultDto published(String operation, BulkResultDto result) {
+        if (result.students() > 0) {
+            eventPublisher.publishEvent(new StudentsBulkChangedEvent(operation, result.students()));
+        }
+        return result;
+    }
+
+    private static Subquery<Long> matching(CriteriaBuilder cb, CommonAbstractCriteria query, StudentFilterDto filter) {
+        Subquery<Long> subquery = query.subquery(Long.class);
+        Root<Student> student = subquery.from(Student.class);
+        return subquery.select(student.get("id")).where(filter(cb, student, filter));
+    }
+
+    private static Predicate filter(CriteriaBuilder cb, Root<Student> student, StudentFilterDto filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.facultyId() != null) {
+            predicates.add(cb.equal(student.get("faculty").get("id"), filter.facultyId()));
+        }
+        if (filter.minAge() != null) {
+            predicates.add(cb.ge(student.get("age"), filter.minAge()));
+        }
+        if (filter.maxAge() != null) {
+            predicates.add(cb.le(student.get("age"), filter.maxAge()));
+        }
+        if (filter.ids() != null && !filter.ids().isEmpty()) {
+            predicates.add(student.get("id").in(filter.ids()));
+        }
+        return cb.and(predicates.toArray(Predicate[]::new));
+    }
+
+    private static void validateFilter(StudentFilterDto filter) {
+        if (filter == null || filter.facultyId() == null && filter.minAge() == null && filter.maxAge() == null
+                && (filter.ids() == null || filter.ids().isEmpty())) {
+            throw new WrongStudentFilterException("Не задано ни одного условия отбора студентов");
+        }
+        if (filter.minAge() != null && filter.maxAge() != null && filter.minAge() > filter.maxAge()) {
+            throw new WrongStudentFilterException("Минимальный возраст больше максимального");
+        }
+    }
+
+    private static String getMethodName() {
+        return convertCamelCaseToSpace(Thread.currentThread().getStackTrace()[2].getMethodName());
+    }
+
+    private static String convertCamelCaseToSpace(String camelCaseString) {
+        return camelCaseString.replaceAll("(?<=.)([A-Z])", " $1").toLowerCase();
+    }
+}
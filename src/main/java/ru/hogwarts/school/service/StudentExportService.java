@@ -0,0 +1,117 @@
+package ru.hogwarts.school.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.hogwarts.school.dto.StudentResponseDto;
+import ru.hogwarts.school.exceptions.WrongExportFormatException;
+import ru.hogwarts.school.mapper.StudentMapper;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StudentExportService {
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+    private static final String CSV_HEADER = "id,name,age";
+
+    @Value("${export.flush-size}")
+    private int flushSize;
+    private final StudentRepository studentRepository;
+    private final StudentMapper studentMapper;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    public MediaType mediaType(final String format) {
+        if ("csv".equalsIgnoreCase(format)) {
+            return TEXT_CSV;
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return MediaType.APPLICATION_NDJSON;
+        }
+        log.error("Unknown export format : {}", format);
+        throw new WrongExportFormatException("Неизвестный формат выгрузки, допустимы csv и ndjson");
+    }
+
+    public StreamingResponseBody exportStudents(final MediaType mediaType) {
+        log.info("Was invoked method for : {}", getMethodName());
+        boolean csv = TEXT_CSV.isCompatibleWith(mediaType);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return out -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(out, csv));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    private void write(OutputStream out, boolean csv) {
+        log.info("Was invoked method for : {}", getMethodName());
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long count = 0;
+        try (Stream<Student> students = studentRepository.streamAll()) {
+            if (csv) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            Iterator<Student> iterator = students.iterator();
+            while (iterator.hasNext()) {
+                StudentResponseDto dto = studentMapper.toDto(iterator.next());
+                writer.write(csv ? toCsv(dto) : objectMapper.writeValueAsString(dto));
+                writer.write('\n');
+                if (++count % flushSize == 0) {
+                    writer.flush();
+                    entityManager.clear();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            log.error("Failed to export students after {} rows", count, e);
+            throw new UncheckedIOException(e);
+        }
+        log.debug("Exported {} students", count);
+    }
+
+    private static String toCsv(StudentResponseDto dto) {
+        return dto.id() + "," + escapeCsv(dto.name()) + "," + dto.age();
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static String getMethodName() {
+        return convertCamelCaseToSpace(Thread.currentThread().getStackTrace()[2].getMethodName());
+    }
+
+    private static String convertCamelCaseToSpace(String camelCaseString) {
+        return camelCaseString.replaceAll("(?<=.)([A-Z])", " $1").toLowerCase();
+    }
+}
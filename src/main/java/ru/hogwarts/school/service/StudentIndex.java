@@ -0,0 +1,6 @@
+package ru.hogwarts.school.service;
+
+interface StudentIndex {
+
+    void rebuildStudents();
+}
@@ -0,0 +1,23 @@
+package ru.hogwarts.school.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.hogwarts.school.event.StudentsBulkChangedEvent;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StudentIndexRebuilder {
+    private final List<StudentIndex> indexes;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentsBulkChanged(final StudentsBulkChangedEvent event) {
+        log.debug("Rebuilding {} indexes after bulk {} of {} students",
+                indexes.size(), event.operation(), event.affected());
+        indexes.forEach(StudentIndex::rebuildStudents);
+    }
+}
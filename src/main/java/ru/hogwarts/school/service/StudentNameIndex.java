@@ -0,0 +1,102 @@
+package ru.hogwarts.school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+
+@Slf4j
+@Component
+public class StudentNameIndex implements StudentIndex {
+    private final VersionedSnapshot<NavigableMap<String, NavigableMap<String, Integer>>> names;
+
+    public StudentNameIndex(StudentRepository studentRepository) {
+        this.names = new VersionedSnapshot<>("student name index", new TreeMap<>(), () -> {
+            NavigableMap<String, NavigableMap<String, Integer>> snapshot = new TreeMap<>();
+            for (String name : studentRepository.findAllNames()) {
+                add(snapshot, name, 1);
+            }
+            return snapshot;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        log.info("Was invoked method for : {}", getMethodName());
+        names.build();
+    }
+
+    @Override
+    public void rebuildStudents() {
+        build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(final StudentChangedEvent event) {
+        if (Objects.equals(event.oldName(), event.newName())) {
+            return;
+        }
+        names.update(index -> {
+            add(index, event.oldName(), -1);
+            add(index, event.newName(), 1);
+        });
+    }
+
+    public List<String> search(final String prefix, final int limit) {
+        String key = fold(prefix);
+        List<String> result = new ArrayList<>(Math.min(limit, 64));
+        return names.read(index -> {
+            for (Map.Entry<String, NavigableMap<String, Integer>> entry : index.tailMap(key, true).entrySet()) {
+                if (!entry.getKey().startsWith(key)) {
+                    break;
+                }
+                for (String original : entry.getValue().keySet()) {
+                    if (result.size() == limit) {
+                        return result;
+                    }
+                    result.add(original);
+                }
+            }
+            return result;
+        });
+    }
+
+    static String fold(String name) {
+        return Normalizer.normalize(name, Normalizer.Form.NFKC)
+                .toUpperCase(Locale.ROOT)
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static void add(Map<String, NavigableMap<String, Integer>> index, String name, int delta) {
+        if (name == null) {
+            return;
+        }
+        NavigableMap<String, Integer> originals = index.computeIfAbsent(fold(name), key -> new TreeMap<>());
+        if (originals.merge(name, delta, Integer::sum) <= 0) {
+            originals.remove(name);
+            if (originals.isEmpty()) {
+                index.remove(fold(name));
+            }
+        }
+    }
+
+    private static String getMethodName() {
+        return convertCamelCaseToSpace(Thread.currentThread().getStackTrace()[2].getMethodName());
+    }
+
+    private static String convertCamelCaseToSpace(String camelCaseString) {
+        return camelCaseString.replaceAll("(?<=.)([A-Z])", " $1").toLowerCase();
+    }
+}
@@ -3,29 +3,49 @@ package ru.hogwarts.school.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.dto.CursorPageDto;
+import ru.hogwarts.school.dto.StudentPatchDto;
 import ru.hogwarts.school.dto.StudentRequestDto;
 import ru.hogwarts.school.dto.StudentResponseDto;
+import ru.hogwarts.school.dto.StudentStatisticsDto;
+import ru.hogwarts.school.dto.StudentStatsDto;
+import ru.hogwarts.school.dto.VersionedDto;
 import ru.hogwarts.school.exceptions.EmptyStringException;
 import ru.hogwarts.school.exceptions.StudentAlreadyExistsException;
 import ru.hogwarts.school.exceptions.StudentNotFoundException;
+import ru.hogwarts.school.exceptions.VersionConflictException;
 import ru.hogwarts.school.exceptions.WrongStudentAgeException;
 import ru.hogwarts.school.mapper.StudentMapper;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.StudentRepository;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
-@Transactional
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class StudentService {
+    private static final String CONFLICT_MESSAGE = "Студент был изменён другим запросом";
 
     private final StudentMapper studentMapper;
     private final StudentRepository studentRepository;
+    private final KeysetPagination keysetPagination;
+    private final StudentStatistics studentStatistics;
+    private final StudentNameIndex studentNameIndex;
+    private final BatchLoader<VersionedDto<StudentResponseDto>> studentLoader;
+    private final OptimisticRetry optimisticRetry;
 
+    @Transactional
     public StudentResponseDto addStudent(final StudentRequestDto dto) {
         log.info("Was invoked method for : {}", getMethodName());
         validateString(dto.name());
@@ -33,34 +53,37 @@ public class StudentService {
         validateAge(dto.age());
         log.debug("Student age verification passed");
 
-        if (studentRepository.existsByNameAndAge(StringUtils.capitalize(dto.name()),
-                dto.age())) {
-            log.warn("Student with the name \"{}\" already exists", dto.name());
-            throw new StudentAlreadyExistsException("Такой студент уже существует");
-        }
-
         var student = studentMapper.toEntity(dto);
         log.debug("Saving student : {}", student.getName());
 
         try {
-            return studentMapper.toDto(studentRepository.save(student));
+            return studentMapper.toDto(studentRepository.saveAndFlush(student));
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolations.violates(e, Student.NAME_AGE_UNIQUE)) {
+                log.error("Failed to save student", e);
+                throw e;
+            }
+            log.warn("Student with the name \"{}\" already exists", dto.name());
+            throw new StudentAlreadyExistsException("Такой студент уже существует");
         } catch (Exception e) {
             log.error("Failed to save student", e);
             throw e;
         }
     }
 
-    public StudentResponseDto getStudentById(final Long id) {
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public VersionedDto<StudentResponseDto> getStudentById(final Long id) {
         log.info("Was invoked method for : {}", getMethodName());
         log.debug("Fetching student with ID : {}", id);
 
-        return studentMapper.toDto(studentRepository.findById(id)
+        return studentLoader.load(id)
                 .orElseThrow(() -> {
                     log.error("Student not found with ID : {}", id);
                     return new StudentNotFoundException("Отсутствует Студент по данному ID");
-                }));
+                });
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public StudentResponseDto changeStudentById(final Long id, final StudentRequestDto dto) {
         log.info("Was invoked method for : {}", getMethodName());
         validateString(dto.name());
@@ -68,23 +91,28 @@ public class StudentService {
         validateAge(dto.age());
         log.debug("Student age verification passed");
 
-        if (!studentRepository.existsById(id)) {
-            log.error("Student not found with ID : {}", id);
-            throw new StudentNotFoundException("Студент не найден");
-        }
-
-        var student = studentMapper.toEntity(dto);
-        student.setId(id);
-        log.debug("Changing student with ID : {}", id);
+        return optimisticRetry.execute(true, CONFLICT_MESSAGE,
+                () -> applyPatch(id, new StudentPatchDto(dto.name(), dto.age()), null)).value();
+    }
 
-        try {
-            return studentMapper.toDto(studentRepository.save(student));
-        } catch (Exception e) {
-            log.error("Failed to changing student", e);
-            throw e;
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public VersionedDto<StudentResponseDto> patchStudent(final Long id, final StudentPatchDto dto,
+                                                         final Long expectedVersion) {
+        log.info("Was invoked method for : {}", getMethodName());
+        if (dto.name() != null) {
+            validateString(dto.name());
+            log.debug("Student name verification passed");
+        }
+        if (dto.age() != null) {
+            validateAge(dto.age());
+            log.debug("Student age verification passed");
         }
+
+        return optimisticRetry.execute(expectedVersion == null, CONFLICT_MESSAGE,
+                () -> applyPatch(id, dto, expectedVersion));
     }
 
+    @Transactional
     public void removeStudentById(final Long id) {
         log.info("Was invoked method for : {}", getMethodName());
         if (!studentRepository.existsById(id)) {
@@ -102,93 +130,149 @@ public class StudentService {
 
     }
 
-    public List<StudentResponseDto> getStudentsByAge(final int age) {
+    public CursorPageDto<StudentResponseDto> getStudentsByAge(final int age, final String cursor, final Integer size) {
         log.info("Was invoked method for : {}", getMethodName());
         validateAge(age);
         log.debug("Student age verification passed");
 
-        var students = studentRepository.findAllByAge(age);
-        if (students.isEmpty()) {
+        int pageSize = keysetPagination.pageSize(size);
+        long afterId = cursor == null ? 0 : keysetPagination.decode(cursor, 1)[0];
+        var students = studentRepository.findAllByAge(age, afterId, keysetPagination.limit(pageSize));
+        if (students.isEmpty() && cursor == null) {
             log.error("Students not found with age : {}", age);
             throw new StudentNotFoundException("Студенты с данным возрастом не найдены");
         }
-        return studentMapper.toDto(students);
+        return keysetPagination.page(students, pageSize, student -> new long[]{student.id()});
     }
 
-    public List<StudentResponseDto> getStudentsByAgeBetween(final int minAge, final int maxAge) {
+    public CursorPageDto<StudentResponseDto> getStudentsByAgeBetween(final int minAge, final int maxAge,
+                                                                     final String cursor, final Integer size) {
         log.info("Was invoked method for : {}", getMethodName());
         validateAge(minAge);
         log.debug("Student minAge verification passed");
         validateAge(maxAge);
         log.debug("Student maxAge verification passed");
 
-        var students = studentRepository.findByAgeBetween(minAge, maxAge);
-        if (students.isEmpty()) {
+        int pageSize = keysetPagination.pageSize(size);
+        long[] after = cursor == null ? new long[]{minAge, 0} : keysetPagination.decode(cursor, 2);
+        var students = studentRepository.findByAgeBetween(minAge, maxAge, (int) after[0], after[1],
+                keysetPagination.limit(pageSize));
+        if (students.isEmpty() && cursor == null) {
             log.error("No students found in this age range");
             throw new StudentNotFoundException("Студенты с данным промежутком возраста не найдены");
         }
-        return studentMapper.toDto(students);
+        return keysetPagination.page(students, pageSize, student -> new long[]{student.age(), student.id()});
     }
 
-    public List<StudentResponseDto> getStudentsByFacultyId(final Long id) {
+    public CursorPageDto<StudentResponseDto> getStudentsByFacultyId(final Long id, final String cursor,
+                                                                    final Integer size) {
         log.info("Was invoked method for : {}", getMethodName());
         log.debug("Getting students by faculty ID : {}", id);
 
-        var students = studentRepository.findAllByFaculty_Id(id);
-        if (students.isEmpty()) {
+        int pageSize = keysetPagination.pageSize(size);
+        long afterId = cursor == null ? 0 : keysetPagination.decode(cursor, 1)[0];
+        var students = studentRepository.findAllByFaculty_Id(id, afterId, keysetPagination.limit(pageSize));
+        if (students.isEmpty() && cursor == null) {
             log.error("Students not found with faculty ID : {}", id);
             throw new StudentNotFoundException("Отсутствуют Студенты по данному ID факультета");
         }
-        return studentMapper.toDto(students);
+        return keysetPagination.page(students, pageSize, student -> new long[]{student.id()});
     }
 
     public Integer getStudentCount() {
         log.info("Was invoked method for : {}", getMethodName());
         log.debug("Getting the number of all students");
 
-        return studentRepository.getStudentCount();
+        return Math.toIntExact(studentStatistics.count());
     }
 
     public Integer getAverageAge() {
         log.info("Was invoked method for : {}", getMethodName());
         log.debug("Obtaining the average age of students");
 
-        return studentRepository.getAverageAge();
+        var average = studentStatistics.average();
+        return average.isPresent() ? (int) average.getAsDouble() : null;
     }
 
     public String getAverageAgeUsingStream() {
         log.info("Was invoked method for : {}", getMethodName());
         log.debug("Obtaining the average age of students");
 
-        return String.valueOf((int) studentRepository.findAll().stream()
-                .mapToInt(Student::getAge)
-                .average()
+        return String.valueOf((int) studentStatistics.average()
                 .orElseThrow(() -> {
                     log.error("Student not found");
                     return new StudentNotFoundException("Студенты отсутствуют");
                 }));
     }
 
+    public StudentStatisticsDto getStudentStatistics() {
+        log.info("Was invoked method for : {}", getMethodName());
+        log.debug("Obtaining student statistics from the age index");
+
+        var average = studentStatistics.average();
+        var minAge = studentStatistics.minAge();
+        var maxAge = studentStatistics.maxAge();
+        return new StudentStatisticsDto(studentStatistics.count(),
+                average.isPresent() ? average.getAsDouble() : null,
+                minAge.isPresent() ? minAge.getAsInt() : null,
+                maxAge.isPresent() ? maxAge.getAsInt() : null);
+    }
+
+    public StudentStatsDto getStudentStats() {
+        log.info("Was invoked method for : {}", getMethodName());
+        log.debug("Aggregating student ages by faculty");
+
+        AgeHistogram overall = new AgeHistogram();
+        Map<Long, AgeHistogram> histograms = new LinkedHashMap<>();
+        Map<Long, String> facultyNames = new HashMap<>();
+        for (Object[] row : studentRepository.countByFacultyAndAge()) {
+            Long facultyId = (Long) row[0];
+            facultyNames.put(facultyId, (String) row[1]);
+            histograms.computeIfAbsent(facultyId, id -> new AgeHistogram())
+                    .add((Integer) row[2], (Long) row[3]);
+        }
+        histograms.values().forEach(overall::merge);
+
+        return new StudentStatsDto(overall.toDto(null, null), histograms.entrySet().stream()
+                .map(entry -> entry.getValue().toDto(entry.getKey(), facultyNames.get(entry.getKey())))
+                .toList());
+    }
+
+    public Long getStudentCountByAgeBetween(final int minAge, final int maxAge) {
+        log.info("Was invoked method for : {}", getMethodName());
+        validateAge(minAge);
+        log.debug("Student minAge verification passed");
+        validateAge(maxAge);
+        log.debug("Student maxAge verification passed");
+
+        return studentStatistics.countBetween(minAge, maxAge);
+    }
+
     public List<StudentResponseDto> getLastFiveStudents() {
         log.info("Was invoked method for : {}", getMethodName());
         log.debug("Getting the last five students");
 
-        return studentMapper.toDto(studentRepository.getLastFiveStudents());
+        return studentRepository.getLastStudents(PageRequest.of(0, 5));
     }
 
     public List<String> getStudentNamesStartingWithA() {
         log.info("Was invoked method for : {}", getMethodName());
 
-        return studentRepository.findAll().stream()
+        return Stream.of("а", "a")
+                .flatMap(prefix -> studentNameIndex.search(prefix, Integer.MAX_VALUE).stream())
                 .peek(item -> log.debug("Processing item in thread: {}", Thread.currentThread().getName()))
-                .map(Student::getName)
-                .filter(name -> StringUtils.startsWithIgnoreCase(name, "а") ||
-                        StringUtils.startsWithIgnoreCase(name, "a"))
                 .map(String::toUpperCase)
                 .sorted()
                 .toList();
     }
 
+    public List<String> getStudentNamesByPrefix(final String prefix, final Integer limit) {
+        log.info("Was invoked method for : {}", getMethodName());
+        log.debug("Searching student names by prefix : {}", prefix);
+
+        return studentNameIndex.search(prefix, keysetPagination.pageSize(limit));
+    }
+
     public void printStudentsNames() {
         List<Student> students = studentRepository.findAll();
 
@@ -252,6 +336,36 @@ public class StudentService {
         }
     }
 
+    private VersionedDto<StudentResponseDto> applyPatch(Long id, StudentPatchDto dto, Long expectedVersion) {
+        var student = studentRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.error("Student not found with ID : {}", id);
+                    return new StudentNotFoundException("Студент не найден");
+                });
+        if (expectedVersion != null && !expectedVersion.equals(student.getVersion())) {
+            log.warn("Student with ID : {} has version {}, expected {}", id, student.getVersion(), expectedVersion);
+            throw new VersionConflictException(CONFLICT_MESSAGE);
+        }
+
+        log.debug("Changing student with ID : {}", id);
+        if (dto.name() != null) {
+            student.setName(StringUtils.capitalize(dto.name()));
+        }
+        if (dto.age() != null) {
+            student.setAge(dto.age());
+        }
+        try {
+            studentRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolations.violates(e, Student.NAME_AGE_UNIQUE)) {
+                throw e;
+            }
+            log.warn("Student with the name \"{}\" already exists", student.getName());
+            throw new StudentAlreadyExistsException("Такой студент уже существует");
+        }
+        return new VersionedDto<>(studentMapper.toDto(student), student.getVersion());
+    }
+
     private static String getMethodName() {
         return convertCamelCaseToSpace(Thread.currentThread().getStackTrace()[2].getMethodName());
     }
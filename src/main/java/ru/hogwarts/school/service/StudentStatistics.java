@@ -0,0 +1,170 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+
+@Slf4j
+@Component
+public class StudentStatistics implements StudentIndex {
+    private static final int INITIAL_AGES = 128;
+
+    private final StudentRepository studentRepository;
+    private final Counter drift;
+    private long[] histogram = new long[INITIAL_AGES];
+    private long count;
+    private long sum;
+    private long version;
+
+    public StudentStatistics(StudentRepository studentRepository, MeterRegistry meterRegistry) {
+        this.studentRepository = studentRepository;
+        this.drift = Counter.builder("student.statistics.drift")
+                .description("Consistency checks that found the age index out of sync with the database")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        log.info("Was invoked method for : {}", getMethodName());
+        if (!reconcile(true)) {
+            log.warn("Students changed while building the age index, next check will rebuild it");
+        }
+    }
+
+    @Override
+    public void rebuildStudents() {
+        build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStudentChanged(final StudentChangedEvent event) {
+        if (Objects.equals(event.oldAge(), event.newAge())) {
+            return;
+        }
+        if (event.oldAge() != null) {
+            add(event.oldAge(), -1);
+        }
+        if (event.newAge() != null) {
+            add(event.newAge(), 1);
+        }
+        version++;
+    }
+
+    @Scheduled(initialDelayString = "${student.statistics.check-delay}",
+            fixedDelayString = "${student.statistics.check-delay}")
+    public void check() {
+        reconcile(false);
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    public synchronized OptionalDouble average() {
+        return count == 0 ? OptionalDouble.empty() : OptionalDouble.of((double) sum / count);
+    }
+
+    public synchronized OptionalInt minAge() {
+        for (int age = 0; age < histogram.length; age++) {
+            if (histogram[age] > 0) {
+                return OptionalInt.of(age);
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    public synchronized OptionalInt maxAge() {
+        for (int age = histogram.length - 1; age >= 0; age--) {
+            if (histogram[age] > 0) {
+                return OptionalInt.of(age);
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    public synchronized long countBetween(final int minAge, final int maxAge) {
+        long result = 0;
+        for (int age = Math.max(minAge, 0); age <= Math.min(maxAge, histogram.length - 1); age++) {
+            result += histogram[age];
+        }
+        return result;
+    }
+
+    private boolean reconcile(boolean initial) {
+        long before;
+        synchronized (this) {
+            before = version;
+        }
+        List<Object[]> rows = studentRepository.countByAge();
+        long[] actual = new long[INITIAL_AGES];
+        for (Object[] row : rows) {
+            int age = (Integer) row[0];
+            if (age >= actual.length) {
+                actual = Arrays.copyOf(actual, Math.max(actual.length * 2, age + 1));
+            }
+            actual[age] += (Long) row[1];
+        }
+
+        synchronized (this) {
+            if (version != before) {
+                log.debug("Students changed during consistency check, skipping");
+                return false;
+            }
+            if (!Arrays.equals(trim(histogram), trim(actual))) {
+                if (!initial) {
+                    log.warn("Student age index is out of sync with the database, rebuilding");
+                    drift.increment();
+                }
+                histogram = actual;
+                count = 0;
+                sum = 0;
+                for (int age = 0; age < actual.length; age++) {
+                    count += actual[age];
+                    sum += actual[age] * age;
+                }
+            }
+            return true;
+        }
+    }
+
+    private void add(int age, int delta) {
+        if (age < 0) {
+            return;
+        }
+        if (age >= histogram.length) {
+            histogram = Arrays.copyOf(histogram, Math.max(histogram.length * 2, age + 1));
+        }
+        histogram[age] += delta;
+        count += delta;
+        sum += (long) age * delta;
+    }
+
+    private static long[] trim(long[] values) {
+        int length = values.length;
+        while (length > 0 && values[length - 1] == 0) {
+            length--;
+        }
+        return Arrays.copyOf(values, length);
+    }
+
+    private static String getMethodName() {
+        return convertCamelCaseToSpace(Thread.currentThread().getStackTrace()[2].getMethodName());
+    }
+
+    private static String convertCamelCaseToSpace(String camelCaseString) {
+        return camelCaseString.replaceAll("(?<=.)([A-Z])", " $1").toLowerCase();
+    }
+}
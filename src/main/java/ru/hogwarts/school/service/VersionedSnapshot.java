@@ -0,0 +1,100 @@
+package ru.hogwarts.school.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Slf4j
+class VersionedSnapshot<S> {
+    private static final int BUILD_ATTEMPTS = 3;
+    private static final long MIN_RETRY_DELAY_MILLIS = 1_000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+    private static final ScheduledExecutorService RETRIES = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String name;
+    private final Supplier<S> loader;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean retrying = new AtomicBoolean();
+    private S snapshot;
+    private long version;
+
+    VersionedSnapshot(String name, S initial, Supplier<S> loader) {
+        this.name = name;
+        this.snapshot = initial;
+        this.loader = loader;
+    }
+
+    void build() {
+        if (!tryBuild() && retrying.compareAndSet(false, true)) {
+            retry(MIN_RETRY_DELAY_MILLIS);
+        }
+    }
+
+    <R> R read(Function<S, R> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(snapshot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void update(Consumer<S> change) {
+        lock.writeLock().lock();
+        try {
+            version++;
+            change.accept(snapshot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean tryBuild() {
+        for (int attempt = 0; attempt < BUILD_ATTEMPTS; attempt++) {
+            long before = read(current -> version);
+            S built = loader.get();
+
+            lock.writeLock().lock();
+            try {
+                if (version == before) {
+                    snapshot = built;
+                    log.debug("Built {}", name);
+                    return true;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return false;
+    }
+
+    private void retry(long delayMillis) {
+        log.warn("Data kept changing while building {}, retrying in {} ms", name, delayMillis);
+        RETRIES.schedule(() -> {
+            boolean built;
+            try {
+                built = tryBuild();
+            } catch (RuntimeException e) {
+                log.error("Failed to build {}", name, e);
+                built = false;
+            }
+            if (built) {
+                retrying.set(false);
+            } else {
+                retry(Math.min(2 * delayMillis, MAX_RETRY_DELAY_MILLIS));
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+}
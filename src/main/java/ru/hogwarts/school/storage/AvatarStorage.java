@@ -0,0 +1,21 @@
+package ru.hogwarts.school.storage;
+
+import ru.hogwarts.school.model.AvatarBlob;
+import ru.hogwarts.school.model.StorageTier;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+public interface AvatarStorage {
+
+    StorageTier getTier();
+
+    boolean contains(AvatarBlob blob);
+
+    InputStream open(AvatarBlob blob) throws IOException;
+
+    void write(AvatarBlob blob, Path source) throws IOException;
+
+    void delete(AvatarBlob blob);
+}
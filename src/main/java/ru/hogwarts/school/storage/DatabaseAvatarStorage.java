@@ -0,0 +1,76 @@
+package ru.hogwarts.school.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.jdbc.BlobProxy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.hogwarts.school.model.AvatarBlob;
+import ru.hogwarts.school.model.StorageTier;
+import ru.hogwarts.school.repository.AvatarBlobRepository;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Blob;
+import java.sql.SQLException;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DatabaseAvatarStorage implements AvatarStorage {
+    private final AvatarBlobRepository avatarBlobRepository;
+
+    @Override
+    public StorageTier getTier() {
+        return StorageTier.DATABASE;
+    }
+
+    @Override
+    public boolean contains(final AvatarBlob blob) {
+        return blob.getData() != null;
+    }
+
+    @Override
+    public InputStream open(final AvatarBlob blob) throws IOException {
+        Blob data = blob.getData();
+        if (data == null) {
+            throw new FileNotFoundException("No data in database for avatar blob with ID : " + blob.getId());
+        }
+        try {
+            return data.getBinaryStream();
+        } catch (SQLException e) {
+            throw new IOException("Failed to read avatar data with blob ID : " + blob.getId(), e);
+        }
+    }
+
+    @Override
+    public void write(final AvatarBlob blob, final Path source) throws IOException {
+        log.debug("Writing avatar blob to database : {}", blob.getHash());
+        InputStream is = Files.newInputStream(source);
+        blob.setData(BlobProxy.generateProxy(is, Files.size(source)));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    is.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close avatar data of blob : {}", blob.getHash(), e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void delete(final AvatarBlob blob) {
+        if (blob.getId() == null || blob.getData() == null) {
+            return;
+        }
+        log.debug("Unlinking database data of avatar blob with ID : {}", blob.getId());
+        avatarBlobRepository.unlinkData(blob.getId());
+        blob.setData(null);
+    }
+}
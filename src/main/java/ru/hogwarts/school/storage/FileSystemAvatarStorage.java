@@ -0,0 +1,72 @@
+package ru.hogwarts.school.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.hogwarts.school.model.AvatarBlob;
+import ru.hogwarts.school.model.StorageTier;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+@Slf4j
+@Component
+public class FileSystemAvatarStorage implements AvatarStorage {
+    @Value("${upload.dir}")
+    private String UPLOAD_DIR;
+
+    @Override
+    public StorageTier getTier() {
+        return StorageTier.FILE_SYSTEM;
+    }
+
+    @Override
+    public boolean contains(final AvatarBlob blob) {
+        return Files.isReadable(resolve(blob));
+    }
+
+    @Override
+    public InputStream open(final AvatarBlob blob) throws IOException {
+        return Files.newInputStream(resolve(blob));
+    }
+
+    @Override
+    public void write(final AvatarBlob blob, final Path source) throws IOException {
+        Path target = resolve(blob);
+        log.debug("Writing avatar blob to file : {}", target);
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        blob.setFilePath(target.toString());
+    }
+
+    @Override
+    public void delete(final AvatarBlob blob) {
+        Path filePath = resolve(blob);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteFile(filePath);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteFile(filePath);
+            }
+        });
+    }
+
+    private Path resolve(AvatarBlob blob) {
+        return blob.getFilePath() != null ? Path.of(blob.getFilePath()) : Path.of(UPLOAD_DIR, blob.getHash());
+    }
+
+    private static void deleteFile(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete file : {}", path, e);
+        }
+    }
+}
@@ -6,4 +6,200 @@ CREATE INDEX IF NOT EXISTS students_name_index ON students (name);
 
 --changeset pruglo-ve:20230716-2 failOnError:true
 --comment: Create faculties_nc_index.
-CREATE INDEX IF NOT EXISTS faculties_name_color_index ON faculties (name, color);
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS faculties_name_color_index ON faculties (name, color);
+
+--changeset pruglo-ve:20261018-1 failOnError:true
+--comment: Move avatar data into content-addressed avatar_blobs.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM information_schema.columns WHERE table_name = 'avatars' AND column_name = 'data'
+CREATE TABLE IF NOT EXISTS avatar_blobs
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    hash       VARCHAR(64) NOT NULL UNIQUE,
+    file_path  VARCHAR(255),
+    file_size  BIGINT      NOT NULL,
+    media_type VARCHAR(255),
+    ref_count  INTEGER     NOT NULL,
+    data       OID
+);
+ALTER TABLE avatars
+    ADD COLUMN IF NOT EXISTS blob_id BIGINT REFERENCES avatar_blobs (id);
+CREATE TEMPORARY TABLE avatar_hashes AS
+SELECT id, data, encode(sha256(lo_get(data)), 'hex') AS hash
+FROM avatars
+WHERE data IS NOT NULL;
+INSERT INTO avatar_blobs (hash, file_path, file_size, media_type, ref_count, data)
+SELECT h.hash, min(a.file_path), max(a.file_size), min(a.media_type), count(*), min(h.data)
+FROM avatar_hashes h
+         JOIN avatars a ON a.id = h.id
+GROUP BY h.hash;
+UPDATE avatars a
+SET blob_id = b.id
+FROM avatar_hashes h
+         JOIN avatar_blobs b ON b.hash = h.hash
+WHERE a.id = h.id;
+SELECT lo_unlink(h.data)
+FROM avatar_hashes h
+         JOIN avatar_blobs b ON b.hash = h.hash
+WHERE h.data <> b.data;
+DROP TABLE avatar_hashes;
+ALTER TABLE avatars
+    DROP COLUMN data;
+
+--changeset pruglo-ve:20261018-2 failOnError:true
+--comment: Record the storage tier of each avatar blob.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM information_schema.tables WHERE table_name = 'avatar_blobs'
+ALTER TABLE avatar_blobs
+    ADD COLUMN IF NOT EXISTS storage VARCHAR(255);
+UPDATE avatar_blobs
+SET storage = CASE WHEN data IS NULL THEN 'FILE_SYSTEM' ELSE 'DATABASE' END
+WHERE storage IS NULL;
+ALTER TABLE avatar_blobs
+    ALTER COLUMN storage SET NOT NULL;
+CREATE INDEX IF NOT EXISTS avatar_blobs_storage_index ON avatar_blobs (storage, id);
+
+--changeset pruglo-ve:20261018-3 failOnError:true
+--comment: Create pooled id sequence for students.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM information_schema.tables WHERE table_name = 'students'
+CREATE SEQUENCE IF NOT EXISTS student_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('student_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM students));
+
+--changeset pruglo-ve:20261018-4 failOnError:true
+--comment: Create pooled id sequence for faculties.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM information_schema.tables WHERE table_name = 'faculties'
+CREATE SEQUENCE IF NOT EXISTS faculty_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('faculty_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM faculties));
+
+--changeset pruglo-ve:20261018-5 failOnError:true
+--comment: Create pooled id sequence for avatars.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM information_schema.tables WHERE table_name = 'avatars'
+CREATE SEQUENCE IF NOT EXISTS avatar_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('avatar_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM avatars));
+
+--changeset pruglo-ve:20261018-6 failOnError:true
+--comment: Create pooled id sequence for avatar_blobs.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM information_schema.tables WHERE table_name = 'avatar_blobs'
+CREATE SEQUENCE IF NOT EXISTS avatar_blob_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('avatar_blob_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM avatar_blobs));
+
+--changeset pruglo-ve:20261018-7 failOnError:true
+--comment: Create pooled id sequence for avatar_previews.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM information_schema.tables WHERE table_name = 'avatar_previews'
+CREATE SEQUENCE IF NOT EXISTS avatar_preview_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('avatar_preview_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM avatar_previews));
+
+--changeset pruglo-ve:20261018-8 failOnError:true
+--comment: Create keyset pagination indexes for students.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM information_schema.tables WHERE table_name = 'students'
+CREATE INDEX IF NOT EXISTS students_age_id_index ON students (age, id);
+CREATE INDEX IF NOT EXISTS students_faculty_id_id_index ON students (faculty_id, id);
+
+--changeset pruglo-ve:20261018-9 failOnError:true
+--comment: Create keyset pagination index for faculties.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM information_schema.tables WHERE table_name = 'faculties'
+CREATE INDEX IF NOT EXISTS faculties_color_id_index ON faculties (color, id);
+
+--changeset pruglo-ve:20261018-10 failOnError:true
+--comment: Create case-insensitive faculty name and color indexes.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM information_schema.tables WHERE table_name = 'faculties'
+CREATE INDEX IF NOT EXISTS faculties_lower_name_index ON faculties (LOWER(name));
+CREATE INDEX IF NOT EXISTS faculties_lower_color_index ON faculties (LOWER(color));
+
+--changeset pruglo-ve:20261018-18 failOnError:true
+--comment: Merge duplicate students before enforcing unique name and age.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:2 SELECT count(*) FROM information_schema.tables WHERE table_name IN ('students', 'avatars')
+CREATE TEMPORARY TABLE student_duplicates AS
+SELECT s.id, k.keep_id
+FROM students s
+         JOIN (SELECT name, age, min(id) AS keep_id
+               FROM students
+               GROUP BY name, age
+               HAVING count(*) > 1) k ON s.name = k.name AND s.age = k.age AND s.id <> k.keep_id;
+UPDATE avatars a
+SET student_id = d.keep_id
+FROM student_duplicates d
+WHERE a.student_id = d.id
+  AND NOT EXISTS (SELECT 1 FROM avatars k WHERE k.student_id = d.keep_id)
+  AND a.id = (SELECT min(o.id)
+              FROM avatars o
+                       JOIN student_duplicates od ON od.id = o.student_id
+              WHERE od.keep_id = d.keep_id);
+UPDATE avatars
+SET student_id = NULL
+WHERE student_id IN (SELECT id FROM student_duplicates);
+DELETE
+FROM students
+WHERE id IN (SELECT id FROM student_duplicates);
+DROP TABLE student_duplicates;
+
+--changeset pruglo-ve:20261018-19 failOnError:true
+--comment: Merge duplicate faculties before enforcing unique name and color.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:2 SELECT count(*) FROM information_schema.tables WHERE table_name IN ('students', 'faculties')
+CREATE TEMPORARY TABLE faculty_duplicates AS
+SELECT f.id, k.keep_id
+FROM faculties f
+         JOIN (SELECT name, color, min(id) AS keep_id
+               FROM faculties
+               GROUP BY name, color
+               HAVING count(*) > 1) k ON f.name = k.name AND f.color = k.color AND f.id <> k.keep_id;
+UPDATE students s
+SET faculty_id = d.keep_id
+FROM faculty_duplicates d
+WHERE s.faculty_id = d.id;
+DELETE
+FROM faculties
+WHERE id IN (SELECT id FROM faculty_duplicates);
+DROP TABLE faculty_duplicates;
+
+--changeset pruglo-ve:20261018-11 failOnError:true
+--comment: Enforce unique students by name and age.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM information_schema.tables WHERE table_name = 'students'
+ALTER TABLE students ADD CONSTRAINT students_name_age_unique UNIQUE (name, age);
+
+--changeset pruglo-ve:20261018-12 failOnError:true
+--comment: Enforce unique faculties by name and color.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM information_schema.tables WHERE table_name = 'faculties'
+ALTER TABLE faculties ADD CONSTRAINT faculties_name_color_unique UNIQUE (name, color);
+
+--changeset pruglo-ve:20261018-13 failOnError:true
+--comment: Add optimistic locking version to students.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM information_schema.tables WHERE table_name = 'students'
+ALTER TABLE students ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+--changeset pruglo-ve:20261018-14 failOnError:true
+--comment: Add optimistic locking version to faculties.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM information_schema.tables WHERE table_name = 'faculties'
+ALTER TABLE faculties ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+--changeset pruglo-ve:20261018-15 failOnError:true
+--comment: Add optimistic locking version to avatars.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM information_schema.tables WHERE table_name = 'avatars'
+ALTER TABLE avatars ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+--changeset pruglo-ve:20261018-16 failOnError:true
+--comment: Add optimistic locking version to avatar_blobs.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM information_schema.tables WHERE table_name = 'avatar_blobs'
+ALTER TABLE avatar_blobs ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+--changeset pruglo-ve:20261018-17 failOnError:true
+--comment: Add optimistic locking version to avatar_previews.
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:1 SELECT count(*) FROM information_schema.tables WHERE table_name = 'avatar_previews'
+ALTER TABLE avatar_previews ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
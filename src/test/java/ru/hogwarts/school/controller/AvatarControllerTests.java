@@ -1,37 +1,59 @@
 package ru.hogwarts.school.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import ru.hogwarts.school.dto.AvatarResponseDto;
+import ru.hogwarts.school.dto.AvatarStorageStatusDto;
+import ru.hogwarts.school.dto.CursorPageDto;
 import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.StorageTier;
+import ru.hogwarts.school.service.AvatarBatchUploadService;
 import ru.hogwarts.school.service.AvatarService;
+import ru.hogwarts.school.service.AvatarStorageMigrationService;
+import ru.hogwarts.school.service.KeysetPagination;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(AvatarController.class)
 @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
 public class AvatarControllerTests {
+    private static final byte[] DATA = "test data".getBytes();
+
     @Autowired
     private MockMvc mockMvc;
 
     @MockBean
     private AvatarService avatarService;
 
+    @MockBean
+    private AvatarStorageMigrationService avatarStorageMigrationService;
+
+    @MockBean
+    private AvatarBatchUploadService avatarBatchUploadService;
+
     @Test
     @DisplayName("Тест на загрузке аватара")
     public void testUploadAvatar() throws Exception {
@@ -44,7 +66,7 @@ public class AvatarControllerTests {
         );
 
         String avatarPath = "/avatars/" + fileName;
-        when(avatarService.saveAvatar(file)).thenReturn(avatarPath);
+        when(avatarService.saveAvatar(file, null)).thenReturn(avatarPath);
 
         mockMvc.perform(MockMvcRequestBuilders.multipart("/avatars/upload")
                         .file(file))
@@ -52,16 +74,63 @@ public class AvatarControllerTests {
                 .andExpect(MockMvcResultMatchers.content().string(avatarPath));
     }
 
+    @Test
+    @DisplayName("Тест на загрузку аватара студента")
+    public void testUploadStudentAvatar() throws Exception {
+        Long studentId = 1L;
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "avatar.jpg",
+                MediaType.IMAGE_JPEG_VALUE,
+                DATA
+        );
+
+        when(avatarService.saveAvatar(file, studentId)).thenReturn("Загрузка Аватара прошла успешно");
+
+        mockMvc.perform(MockMvcRequestBuilders.multipart("/avatars/upload")
+                        .file(file)
+                        .param("studentId", String.valueOf(studentId)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string("Загрузка Аватара прошла успешно"));
+    }
+
+    @Test
+    @DisplayName("Тест на удаление аватара по ИД")
+    public void testRemoveAvatarById() throws Exception {
+        Long avatarId = 1L;
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/avatars/remove/{id}", avatarId))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string("Аватар успешно удалён"));
+        verify(avatarService).removeAvatarById(avatarId);
+    }
+
     @Test
     @DisplayName("Тест на получение аватара из БД")
     public void testGetAvatarById() throws Exception {
         Long avatarId = 1L;
-        Avatar avatar = createAvatar();
-        when(avatarService.getAvatarById(avatarId)).thenReturn(ResponseEntity.ok(avatar.getData()));
+        doAnswer(writeBody(MediaType.IMAGE_JPEG_VALUE, DATA, 3))
+                .when(avatarService).getAvatarById(eq(avatarId), isNull(), any(), any());
 
         mockMvc.perform(MockMvcRequestBuilders.get("/avatars/{id}", avatarId))
                 .andExpect(MockMvcResultMatchers.status().isOk())
-                .andExpect(MockMvcResultMatchers.content().bytes(avatar.getData()));
+                .andExpect(MockMvcResultMatchers.content().bytes(DATA));
+    }
+
+    @Test
+    @DisplayName("Тест на получение превью аватара")
+    public void testGetAvatarPreviewById() throws Exception {
+        Long avatarId = 1L;
+        int size = 100;
+        byte[] preview = "preview data".getBytes();
+        doAnswer(writeBody(MediaType.IMAGE_PNG_VALUE, preview, 3))
+                .when(avatarService).getAvatarById(eq(avatarId), eq(size), any(), any());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/avatars/{id}", avatarId)
+                        .param("size", String.valueOf(size)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(MockMvcResultMatchers.content().bytes(preview));
     }
 
     @Test
@@ -69,45 +138,110 @@ public class AvatarControllerTests {
     public void testGetAvatarFromFile() throws Exception {
         String fileName = "avatar.jpg";
         Avatar avatar = createAvatar();
-        when(avatarService.getAvatarFromFile(fileName)).thenReturn(ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(avatar.getMediaType()))
-                .body(new ByteArrayResource(avatar.getData())));
+        doAnswer(writeBody(avatar.getMediaType(), DATA, 2))
+                .when(avatarService).getAvatarFromFile(eq(fileName), any(), any());
 
         mockMvc.perform(MockMvcRequestBuilders.get("/avatars/files/{fileName}", fileName))
                 .andExpect(MockMvcResultMatchers.status().isOk())
-                .andExpect(MockMvcResultMatchers.content().bytes(avatar.getData()));
+                .andExpect(MockMvcResultMatchers.content().bytes(DATA));
     }
 
     @Test
     @DisplayName("Тест на получение всех аватаров")
     public void testGetAllAvatar() throws Exception {
-        int pageNumber = 0;
         int pageSize = 10;
-        List<Avatar> avatars = createAvatarList();
+        String cursor = "MTA";
+        List<AvatarResponseDto> avatars = createAvatarList();
+        CursorPageDto<AvatarResponseDto> page = new CursorPageDto<>(avatars, "MjA");
 
-        when(avatarService.getAllAvatar(pageNumber, pageSize)).thenReturn(avatars);
+        when(avatarService.getAllAvatar(cursor, pageSize)).thenReturn(page);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/avatars/all")
-                        .param("page", String.valueOf(pageNumber))
+                        .param("cursor", cursor)
                         .param("size", String.valueOf(pageSize)))
                 .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(KeysetPagination.NEXT_CURSOR_HEADER, "MjA"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(avatars.size()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].previewUrl").value("/avatars/1?size=100"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].data").doesNotExist())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(KeysetPagination.TOTAL_COUNT_HEADER));
+    }
+
+    @Test
+    @DisplayName("Тест на общее количество аватаров на первой странице")
+    public void testGetAllAvatarFirstPageTotal() throws Exception {
+        List<AvatarResponseDto> avatars = createAvatarList();
+        CursorPageDto<AvatarResponseDto> page = new CursorPageDto<>(avatars, "MjA", 42L);
+
+        when(avatarService.getAllAvatar(null, null)).thenReturn(page);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/avatars/all"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(KeysetPagination.TOTAL_COUNT_HEADER, "42"))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(avatars.size()));
     }
 
+    @Test
+    @DisplayName("Тест на пакетную загрузку аватаров")
+    public void testUploadAvatars() throws Exception {
+        MockMultipartFile first = new MockMultipartFile("files", "1.jpg", MediaType.IMAGE_JPEG_VALUE, DATA);
+        MockMultipartFile second = new MockMultipartFile("files", "2.jpg", MediaType.IMAGE_JPEG_VALUE, DATA);
+        String report = "{\"fileName\":\"1.jpg\",\"studentId\":1,\"success\":true}\n" +
+                "{\"fileName\":\"2.jpg\",\"studentId\":2,\"success\":true}\n";
+
+        when(avatarBatchUploadService.uploadAvatars(any())).thenReturn(out -> out.write(report.getBytes()));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.multipart("/avatars/upload/batch")
+                        .file(first)
+                        .file(second))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.content().string(report));
+        verify(avatarBatchUploadService).uploadAvatars(argThat(files -> files.size() == 2));
+    }
+
+    @Test
+    @DisplayName("Тест на получение состояния хранилища аватаров")
+    public void testGetStorageStatus() throws Exception {
+        AvatarStorageStatusDto status = new AvatarStorageStatusDto(StorageTier.FILE_SYSTEM, true,
+                3L, 7L, 7L, 0L);
+
+        when(avatarStorageMigrationService.getStatus()).thenReturn(status);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/avatars/storage"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.tier").value("FILE_SYSTEM"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.databaseBlobs").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.fileSystemBlobs").value(7));
+    }
+
+    private Answer<Void> writeBody(String contentType, byte[] body, int responseIndex) {
+        return invocation -> {
+            HttpServletResponse response = invocation.getArgument(responseIndex);
+            response.setContentType(contentType);
+            response.getOutputStream().write(body);
+            return null;
+        };
+    }
+
     private Avatar createAvatar() {
         return new Avatar("test.jpg",
                 1024L,
                 MediaType.IMAGE_JPEG_VALUE,
-                "test data".getBytes(),
+                null,
                 null);
     }
 
-    private List<Avatar> createAvatarList() {
-        List<Avatar> avatars = new ArrayList<>();
+    private List<AvatarResponseDto> createAvatarList() {
+        List<AvatarResponseDto> avatars = new ArrayList<>();
         for (int i = 0; i < 5; i++) {
-            Avatar avatar = createAvatar();
-            avatar.setId((long) i + 1);
-            avatars.add(avatar);
+            long id = i + 1;
+            avatars.add(new AvatarResponseDto(id, 1024L, MediaType.IMAGE_JPEG_VALUE, null,
+                    "/avatars/" + id + "?size=100"));
         }
         return avatars;
     }
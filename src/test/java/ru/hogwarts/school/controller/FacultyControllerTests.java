@@ -13,10 +13,15 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import ru.hogwarts.school.dto.CursorPageDto;
 import ru.hogwarts.school.dto.FacultyRequestDto;
 import ru.hogwarts.school.dto.FacultyResponseDto;
+import ru.hogwarts.school.dto.ImportReportDto;
+import ru.hogwarts.school.dto.VersionedDto;
 import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.ImportService;
 
+import java.io.InputStream;
 import java.util.Collections;
 
 import static org.mockito.ArgumentMatchers.*;
@@ -34,16 +39,20 @@ public class FacultyControllerTests {
     @MockBean
     private FacultyService facultyService;
 
+    @MockBean
+    private ImportService importService;
+
     private FacultyResponseDto createFacultyResponseDto() {
         return new FacultyResponseDto(1L, "Гриффиндор", "Красный");
     }
 
     private void setupFacultyServiceMock(FacultyResponseDto faculty) {
         when(facultyService.addFaculty(any(FacultyRequestDto.class))).thenReturn(faculty);
-        when(facultyService.getFacultyById(anyLong())).thenReturn(faculty);
+        when(facultyService.getFacultyById(anyLong())).thenReturn(new VersionedDto<>(faculty, 0L));
         when(facultyService.changeFaculty(anyLong(), any(FacultyRequestDto.class))).thenReturn(faculty);
         doNothing().when(facultyService).removeFacultyById(anyLong());
-        when(facultyService.getFacultiesByColor(anyString())).thenReturn(Collections.singletonList(faculty));
+        when(facultyService.getFacultiesByColor(anyString(), any(), any()))
+                .thenReturn(new CursorPageDto<>(Collections.singletonList(faculty), null));
         when(facultyService.getFacultyByColorOrName(anyString())).thenReturn(faculty);
         when(facultyService.getFacultyByStudentIdOrName(anyLong(), anyString())).thenReturn(faculty);
         when(facultyService.getLongestFacultyName()).thenReturn("Гриффиндор");
@@ -63,6 +72,22 @@ public class FacultyControllerTests {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.color").value(faculty.color()));
     }
 
+    @Test
+    @DisplayName("Тест на импорт факультетов из NDJSON")
+    public void testImportFaculties() throws Exception {
+        String body = "{\"name\":\"Гриффиндор\",\"color\":\"Красный\"}\n";
+        ImportReportDto report = new ImportReportDto(1L, 1L, 0L, 0L, 10L, 100.0, Collections.emptyList());
+        when(importService.importFaculties(any(InputStream.class), anyString())).thenReturn(report);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/faculty/import")
+                        .contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                        .content(body))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.total").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.imported").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors.length()").value(0));
+    }
+
     @Test
     @DisplayName("Тест на получение факультета по ИД")
     public void testGetFacultyById() throws Exception {
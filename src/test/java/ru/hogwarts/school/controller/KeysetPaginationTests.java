@@ -0,0 +1,115 @@
+package ru.hogwarts.school.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import ru.hogwarts.school.SqlStatementCounter;
+import ru.hogwarts.school.dto.StudentResponseDto;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.KeysetPagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class KeysetPaginationTests {
+    private static final int STUDENTS = 95;
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(new Student("Студент" + i, 20 + i % 3, null));
+        }
+        studentRepository.saveAll(students);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Тест на обход студентов в промежутке возраста по курсору")
+    public void testWalkStudentsByAgeBetween() throws Exception {
+        List<StudentResponseDto> students = walk("/student/allBetween/20/22");
+
+        assertEquals(STUDENTS, students.size());
+        assertEquals(STUDENTS, students.stream().map(StudentResponseDto::id).distinct().count());
+        assertEquals(students.stream()
+                        .sorted(Comparator.comparing(StudentResponseDto::age).thenComparing(StudentResponseDto::id))
+                        .toList(),
+                students);
+    }
+
+    @Test
+    @DisplayName("Тест на обход студентов по возрасту по курсору")
+    public void testWalkStudentsByAge() throws Exception {
+        List<StudentResponseDto> students = walk("/student/all/21");
+
+        assertEquals(STUDENTS / 3 + (STUDENTS % 3 > 1 ? 1 : 0), students.size());
+        assertTrue(students.stream().allMatch(student -> student.age() == 21));
+    }
+
+    @Test
+    @DisplayName("Тест на отклонение некорректного курсора")
+    public void testRejectWrongCursor() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/student/all/21").param("cursor", "не курсор"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    private List<StudentResponseDto> walk(String url) throws Exception {
+        List<StudentResponseDto> students = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(url)
+                    .param("size", String.valueOf(PAGE_SIZE));
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            SqlStatementCounter.reset();
+            MockHttpServletResponse response = mockMvc.perform(request)
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andReturn()
+                    .getResponse();
+            assertEquals(1, SqlStatementCounter.count());
+
+            List<StudentResponseDto> page = objectMapper.readValue(
+                    response.getContentAsString(StandardCharsets.UTF_8), new TypeReference<>() {
+                    });
+            assertTrue(page.size() <= PAGE_SIZE);
+            students.addAll(page);
+            cursor = response.getHeader(KeysetPagination.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+        return students;
+    }
+}
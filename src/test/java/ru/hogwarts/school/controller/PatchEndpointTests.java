@@ -0,0 +1,165 @@
+package ru.hogwarts.school.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import ru.hogwarts.school.SqlStatementCounter;
+import ru.hogwarts.school.dto.StudentPatchDto;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.StudentService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class PatchEndpointTests {
+    private static final int THREADS = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    private Student student;
+    private Faculty faculty;
+
+    @BeforeEach
+    public void setUp() {
+        faculty = facultyRepository.save(new Faculty("Гриффиндор", "Красный", null));
+        student = studentRepository.save(new Student("Гарри", 17, faculty));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        studentRepository.deleteAll();
+        facultyRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Тест на частичное изменение студента с проверкой версии")
+    public void testPatchStudent() throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(MockMvcRequestBuilders.patch("/student/patch/{id}", student.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\":18}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Гарри"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.age").value(18));
+        assertEquals(2, SqlStatementCounter.count());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/student/patch/{id}", student.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\":19}"))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+        assertEquals(18, studentRepository.findById(student.getId()).orElseThrow().getAge());
+    }
+
+    @Test
+    @DisplayName("Тест на частичное изменение факультета одним запросом к БД")
+    public void testPatchFacultySingleStatement() throws Exception {
+        facultyRepository.findById(faculty.getId());
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(MockMvcRequestBuilders.patch("/faculty/patch/{id}", faculty.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"color\":\"Золотой\"}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Гриффиндор"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.color").value("Золотой"));
+        assertEquals(1, SqlStatementCounter.count());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/faculty/patch/{id}", faculty.getId())
+                        .header(HttpHeaders.IF_MATCH, "abc")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"color\":\"Красный\"}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.patch("/faculty/patch/{id}", -1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"color\":\"Красный\"}"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Тест на изменение студента и факультета по ETag из ответа на чтение")
+    public void testPatchWithETagFromGet() throws Exception {
+        assertPatchWithETagFromGet("/student/get/{id}", "/student/patch/{id}", student.getId(), "{\"age\":18}");
+        assertPatchWithETagFromGet("/faculty/get/{id}", "/faculty/patch/{id}", faculty.getId(),
+                "{\"color\":\"Золотой\"}");
+    }
+
+    @Test
+    @DisplayName("Тест на повтор одновременных идемпотентных изменений студента")
+    public void testConcurrentIdempotentPatches() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int age = 20 + i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return studentService.patchStudent(student.getId(), new StudentPatchDto(null, age), null);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(THREADS, studentRepository.findById(student.getId()).orElseThrow().getVersion());
+    }
+
+    private void assertPatchWithETagFromGet(String getUrl, String patchUrl, Long id, String body) throws Exception {
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get(getUrl, id))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"0\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(patchUrl, id)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\""));
+        mockMvc.perform(MockMvcRequestBuilders.patch(patchUrl, id)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+    }
+}
@@ -0,0 +1,139 @@
+package ru.hogwarts.school.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.StudentNameIndex;
+import ru.hogwarts.school.service.StudentStatistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class StudentBulkTests {
+    private static final int STUDENTS_PER_FACULTY = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private AvatarRepository avatarRepository;
+
+    @Autowired
+    private StudentStatistics studentStatistics;
+
+    @Autowired
+    private StudentNameIndex studentNameIndex;
+
+    private Faculty gryffindor;
+    private Faculty slytherin;
+
+    @BeforeEach
+    public void setUp() {
+        gryffindor = facultyRepository.save(new Faculty("Гриффиндор", "Красный", null));
+        slytherin = facultyRepository.save(new Faculty("Слизерин", "Зелёный", null));
+        for (Faculty faculty : new Faculty[]{gryffindor, slytherin}) {
+            for (int i = 0; i < STUDENTS_PER_FACULTY; i++) {
+                Student student = studentRepository.save(new Student(faculty.getName() + " " + i, 11 + i % 7, faculty));
+                avatarRepository.save(new Avatar("avatar.png", 1L, "image/png", null, student));
+            }
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        avatarRepository.deleteAll();
+        studentRepository.deleteAll();
+        facultyRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Тест на перевод студентов факультета одним запросом")
+    public void testMoveStudents() throws Exception {
+        String body = "{\"filter\":{\"facultyId\":" + gryffindor.getId() + "},\"facultyId\":" + slytherin.getId() + "}";
+
+        post("/student/bulk/move", body)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.students").value(STUDENTS_PER_FACULTY));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/student/students/" + slytherin.getId()).param("size", "100"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2 * STUDENTS_PER_FACULTY));
+    }
+
+    @Test
+    @DisplayName("Тест на изменение возраста студентов по диапазону")
+    public void testReageStudents() throws Exception {
+        post("/student/bulk/age", "{\"filter\":{\"minAge\":11,\"maxAge\":12},\"delta\":1}")
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.students").value(8));
+
+        assertTrue(studentRepository.findAll().stream().noneMatch(student -> student.getAge() == 11));
+        assertEquals(0, studentStatistics.countBetween(11, 11));
+        assertEquals(studentRepository.count(), studentStatistics.count());
+
+        post("/student/bulk/age", "{\"filter\":{\"minAge\":12},\"delta\":0}")
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        post("/student/bulk/age", "{\"filter\":{},\"delta\":1}")
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Тест на изменение возраста студента в уже существующую пару имени и возраста")
+    public void testReageStudentsIntoExisting() throws Exception {
+        Student student = studentRepository.findAll().stream()
+                .filter(found -> found.getName().equals(gryffindor.getName() + " 0"))
+                .findFirst()
+                .orElseThrow();
+        studentRepository.save(new Student(student.getName(), student.getAge() + 1, gryffindor));
+
+        post("/student/bulk/age", "{\"filter\":{\"ids\":[" + student.getId() + "]},\"delta\":1}")
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("Такой студент уже существует"));
+
+        assertEquals(student.getAge(), studentRepository.findById(student.getId()).orElseThrow().getAge());
+    }
+
+    @Test
+    @DisplayName("Тест на удаление студентов факультета вместе с аватарами")
+    public void testDeleteStudents() throws Exception {
+        post("/student/bulk/delete", "{\"facultyId\":" + gryffindor.getId() + "}")
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.students").value(STUDENTS_PER_FACULTY))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.avatars").value(STUDENTS_PER_FACULTY));
+
+        assertEquals(STUDENTS_PER_FACULTY, studentRepository.count());
+        assertEquals(STUDENTS_PER_FACULTY, avatarRepository.count());
+        assertEquals(STUDENTS_PER_FACULTY, studentStatistics.count());
+        assertTrue(studentNameIndex.search("гриффиндор", 10).isEmpty());
+    }
+
+    private ResultActions post(String url, String body) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.post(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+}
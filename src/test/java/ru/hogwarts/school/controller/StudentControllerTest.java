@@ -11,12 +11,24 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import ru.hogwarts.school.dto.AgeDistributionDto;
+import ru.hogwarts.school.dto.CursorPageDto;
+import ru.hogwarts.school.dto.ImportReportDto;
 import ru.hogwarts.school.dto.StudentRequestDto;
 import ru.hogwarts.school.dto.StudentResponseDto;
+import ru.hogwarts.school.dto.StudentStatisticsDto;
+import ru.hogwarts.school.dto.StudentStatsDto;
+import ru.hogwarts.school.dto.VersionedDto;
+import ru.hogwarts.school.service.ImportService;
+import ru.hogwarts.school.service.StudentBulkService;
+import ru.hogwarts.school.service.StudentExportService;
 import ru.hogwarts.school.service.StudentService;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -36,18 +48,31 @@ public class StudentControllerTest {
     @MockBean
     private StudentService studentService;
 
+    @MockBean
+    private ImportService importService;
+
+    @MockBean
+    private StudentExportService studentExportService;
+
+    @MockBean
+    private StudentBulkService studentBulkService;
+
     private StudentResponseDto createStudentResponseDto() {
         return new StudentResponseDto(1L, "Василий", 25);
     }
 
+    private static CursorPageDto<StudentResponseDto> singlePage(StudentResponseDto student) {
+        return new CursorPageDto<>(Collections.singletonList(student), null);
+    }
+
     private void setupStudentServiceMock(StudentResponseDto student) {
         when(studentService.addStudent(any(StudentRequestDto.class))).thenReturn(student);
-        when(studentService.getStudentById(anyLong())).thenReturn(student);
+        when(studentService.getStudentById(anyLong())).thenReturn(new VersionedDto<>(student, 0L));
         when(studentService.changeStudentById(anyLong(), any(StudentRequestDto.class))).thenReturn(student);
         doNothing().when(studentService).removeStudentById(anyLong());
-        when(studentService.getStudentsByAge(anyInt())).thenReturn(Collections.singletonList(student));
-        when(studentService.getStudentsByAgeBetween(anyInt(), anyInt())).thenReturn(Collections.singletonList(student));
-        when(studentService.getStudentsByFacultyId(anyLong())).thenReturn(Collections.singletonList(student));
+        when(studentService.getStudentsByAge(anyInt(), any(), any())).thenReturn(singlePage(student));
+        when(studentService.getStudentsByAgeBetween(anyInt(), anyInt(), any(), any())).thenReturn(singlePage(student));
+        when(studentService.getStudentsByFacultyId(anyLong(), any(), any())).thenReturn(singlePage(student));
         when(studentService.getStudentNamesStartingWithA()).thenReturn(Collections.singletonList(student.name()));
         when(studentService.getAverageAge()).thenReturn(25);
         when(studentService.getAverageAgeUsingStream()).thenReturn("25");
@@ -75,6 +100,41 @@ public class StudentControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.age").value(student.age()));
     }
 
+    @Test
+    @DisplayName("Тест на импорт студентов из CSV")
+    public void testImportStudents() throws Exception {
+        String body = "name,age\nВасилий,25\nМария,22\n";
+        ImportReportDto report = new ImportReportDto(2L, 2L, 0L, 0L, 10L, 200.0, Collections.emptyList());
+        when(importService.importStudents(any(InputStream.class), anyString())).thenReturn(report);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/student/import")
+                        .contentType("text/csv")
+                        .content(body))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.total").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.imported").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors.length()").value(0));
+    }
+
+    @Test
+    @DisplayName("Тест на выгрузку студентов в CSV")
+    public void testExportStudents() throws Exception {
+        String body = "id,name,age\n1,Василий,25\n";
+        when(studentExportService.mediaType("csv")).thenReturn(StudentExportService.TEXT_CSV);
+        when(studentExportService.exportStudents(any(MediaType.class)))
+                .thenReturn(out -> out.write(body.getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/student/export")
+                        .param("format", "csv"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(MockMvcResultMatchers.content().string(body));
+    }
+
     @Test
     @DisplayName("Тест на получение студента по ИД")
     public void testGetStudentById() throws Exception {
@@ -197,6 +257,56 @@ public class StudentControllerTest {
                 .andExpect(MockMvcResultMatchers.content().string(String.valueOf(studentCount)));
     }
 
+    @Test
+    @DisplayName("Тест на поиск имён студентов по началу имени")
+    public void testGetStudentNamesByPrefix() throws Exception {
+        when(studentService.getStudentNamesByPrefix("ва", 2)).thenReturn(List.of("Валентина", "Василий"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/student/names")
+                        .param("prefix", "ва")
+                        .param("limit", "2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0]").value("Валентина"));
+    }
+
+    @Test
+    @DisplayName("Тест на получение количества студентов в промежутке возраста")
+    public void testGetStudentCountByAgeBetween() throws Exception {
+        when(studentService.getStudentCountByAgeBetween(20, 25)).thenReturn(7L);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/student/students/count/{minAge}/{maxAge}", 20, 25))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string("7"));
+    }
+
+    @Test
+    @DisplayName("Тест на получение распределения возраста студентов по факультетам")
+    public void testGetStudentStats() throws Exception {
+        AgeDistributionDto overall = new AgeDistributionDto(null, null, 3L, 21.0, 20, 22, 0.8, 21, 22, 22);
+        AgeDistributionDto faculty = new AgeDistributionDto(1L, "Гриффиндор", 3L, 21.0, 20, 22, 0.8, 21, 22, 22);
+        when(studentService.getStudentStats()).thenReturn(new StudentStatsDto(overall, List.of(faculty)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/student/stats"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.overall.count").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.overall.p50").value(21))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.faculties[0].facultyName").value("Гриффиндор"));
+    }
+
+    @Test
+    @DisplayName("Тест на получение статистики по возрасту студентов")
+    public void testGetStudentStatistics() throws Exception {
+        when(studentService.getStudentStatistics()).thenReturn(new StudentStatisticsDto(10L, 22.5, 18, 27));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/student/students/statistics"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.count").value(10))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.averageAge").value(22.5))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.minAge").value(18))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.maxAge").value(27));
+    }
+
     @Test
     @DisplayName("Тест на получение последних пяти студентов")
     public void testGetLastFiveStudents() throws Exception {
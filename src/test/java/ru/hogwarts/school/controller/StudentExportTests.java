@@ -0,0 +1,96 @@
+package ru.hogwarts.school.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import ru.hogwarts.school.dto.StudentResponseDto;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class StudentExportTests {
+    private static final int STUDENTS = 2_500;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(new Student("Студент" + i, 20 + i % 5, null));
+        }
+        studentRepository.saveAll(students);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Тест на потоковую выгрузку студентов в CSV")
+    public void testExportStudentsCsv() throws Exception {
+        String[] lines = export("csv").split("\n");
+
+        assertEquals(STUDENTS + 1, lines.length);
+        assertEquals("id,name,age", lines[0]);
+    }
+
+    @Test
+    @DisplayName("Тест на потоковую выгрузку студентов в NDJSON")
+    public void testExportStudentsNdjson() throws Exception {
+        String[] lines = export("ndjson").split("\n");
+
+        assertEquals(STUDENTS, lines.length);
+        StudentResponseDto first = objectMapper.readValue(lines[0], StudentResponseDto.class);
+        StudentResponseDto last = objectMapper.readValue(lines[STUDENTS - 1], StudentResponseDto.class);
+        assertEquals("Студент0", first.name());
+        assertEquals(STUDENTS - 1, last.id() - first.id());
+    }
+
+    @Test
+    @DisplayName("Тест на отклонение неизвестного формата выгрузки")
+    public void testExportStudentsUnknownFormat() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/student/export")
+                        .param("format", "cvs"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    private String export(String format) throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/student/export")
+                        .param("format", format))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,171 @@
+package ru.hogwarts.school.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import ru.hogwarts.school.SqlStatementCounter;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class StudentQueryCountTests {
+    private static final int STUDENTS_PER_FACULTY = 10;
+    private static final int AGE = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private AvatarRepository avatarRepository;
+
+    private Long facultyId;
+    private Long studentId;
+
+    @BeforeEach
+    public void setUp() {
+        for (String name : new String[]{"Гриффиндор", "Слизерин"}) {
+            Faculty faculty = facultyRepository.save(new Faculty(name, "Красный", null));
+            facultyId = faculty.getId();
+            for (int i = 0; i < STUDENTS_PER_FACULTY; i++) {
+                Student student = studentRepository.save(new Student(name + " " + i, AGE + i % 2, faculty));
+                studentId = student.getId();
+                avatarRepository.save(new Avatar("avatar.png", 1L, "image/png", null, student));
+            }
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        avatarRepository.deleteAll();
+        studentRepository.deleteAll();
+        facultyRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Тест на получение студента по ИД одним запросом")
+    public void testGetStudentByIdQueryCount() throws Exception {
+        assertSingleQuery("/student/get/" + studentId);
+    }
+
+    @Test
+    @DisplayName("Тест на получение студентов по возрасту одним запросом")
+    public void testGetStudentsByAgeQueryCount() throws Exception {
+        assertSingleQuery("/student/all/" + AGE);
+    }
+
+    @Test
+    @DisplayName("Тест на получение студентов в промежутке возраста одним запросом")
+    public void testGetStudentsByAgeBetweenQueryCount() throws Exception {
+        assertSingleQuery("/student/allBetween/" + AGE + "/" + (AGE + 1));
+    }
+
+    @Test
+    @DisplayName("Тест на получение студентов по ИД факультета одним запросом")
+    public void testGetStudentsByFacultyIdQueryCount() throws Exception {
+        assertSingleQuery("/student/students/" + facultyId);
+    }
+
+    @Test
+    @DisplayName("Тест на получение последних студентов одним запросом")
+    public void testGetLastFiveStudentsQueryCount() throws Exception {
+        assertSingleQuery("/student/students/last-five");
+    }
+
+    @Test
+    @DisplayName("Тест на получение имён студентов без запросов к БД")
+    public void testStudentNamesQueryCount() throws Exception {
+        assertQueries("/student/names-starting-with-A", 0);
+        assertQueries("/student/names?prefix=сл&limit=5", 0);
+    }
+
+    @Test
+    @DisplayName("Тест на получение статистики студентов без запросов к БД")
+    public void testStudentAggregatesQueryCount() throws Exception {
+        assertQueries("/student/students/count", 0);
+        assertQueries("/student/students/average-age", 0);
+        assertQueries("/student/students/average-age/stream", 0);
+        assertQueries("/student/students/statistics", 0);
+        assertQueries("/student/students/count/" + AGE + "/" + (AGE + 1), 0);
+    }
+
+    @Test
+    @DisplayName("Тест на получение распределения возраста по факультетам одним запросом")
+    public void testStudentStatsQueryCount() throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(MockMvcRequestBuilders.get("/student/stats"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.overall.count").value(2 * STUDENTS_PER_FACULTY))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.overall.mean").value(AGE + 0.5))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.overall.min").value(AGE))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.overall.max").value(AGE + 1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.overall.p90").value(AGE + 1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.faculties.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.faculties[1].facultyName").value("Слизерин"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.faculties[1].count").value(STUDENTS_PER_FACULTY));
+        assertEquals(1, SqlStatementCounter.count());
+    }
+
+    @Test
+    @DisplayName("Тест на получение факультетов списка студентов одним запросом")
+    public void testFacultiesByStudentsQueryCount() throws Exception {
+        String body = "[{\"id\":" + studentId + "},{\"name\":\"Гриффиндор 0\"}," +
+                "{\"id\":-1,\"name\":\"Нет\"},{\"id\":-1,\"name\":\"Слизерин 0\"}]";
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(MockMvcRequestBuilders.post("/faculty/by-students")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(4))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].studentId").value(studentId))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].faculty.id").value(facultyId))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].faculty.name").value("Гриффиндор"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[2].faculty").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[3].faculty.name").value("Слизерин"));
+        assertEquals(1, SqlStatementCounter.count());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/faculty/by-students")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":" + studentId + "}]"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].faculty.id").value(facultyId));
+        mockMvc.perform(MockMvcRequestBuilders.post("/faculty/by-students")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+    }
+
+    private void assertSingleQuery(String url) throws Exception {
+        assertQueries(url, 1);
+    }
+
+    private void assertQueries(String url, int expected) throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(MockMvcRequestBuilders.get(url))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        assertEquals(expected, SqlStatementCounter.count(), "SQL statements for " + url);
+    }
+}
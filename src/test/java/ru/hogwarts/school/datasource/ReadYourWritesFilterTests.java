@@ -0,0 +1,76 @@
+package ru.hogwarts.school.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReadYourWritesFilterTests {
+    private static final String CLIENT = "client";
+
+    private ReadYourWrites readYourWrites;
+    private ReadYourWritesFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        readYourWrites = new ReadYourWrites(60_000);
+        filter = new ReadYourWritesFilter(readYourWrites);
+    }
+
+    @Test
+    @DisplayName("Тест на чтение из основной базы после успешной записи")
+    public void testSuccessfulWritePinsNextRead() throws Exception {
+        filter.doFilter(request("POST", "/student/add"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertTrue(pinnedOnRead());
+    }
+
+    @Test
+    @DisplayName("Тест на отсутствие записи для POST-запроса только на чтение")
+    public void testReadOnlyPostIsNotWrite() throws Exception {
+        filter.doFilter(request("POST", "/faculty/by-students"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertFalse(pinnedOnRead());
+    }
+
+    @Test
+    @DisplayName("Тест на отсутствие записи при ошибке запроса")
+    public void testFailedWriteIsNotWrite() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(400);
+        filter.doFilter(request("POST", "/student/add"), response, new MockFilterChain());
+
+        FilterChain failing = (request, servletResponse) -> {
+            throw new ServletException("Ошибка обработки запроса");
+        };
+        assertThrows(ServletException.class, () ->
+                filter.doFilter(request("POST", "/student/add"), new MockHttpServletResponse(), failing));
+
+        assertFalse(pinnedOnRead());
+    }
+
+    private boolean pinnedOnRead() throws ServletException, IOException {
+        AtomicBoolean pinned = new AtomicBoolean();
+        filter.doFilter(request("GET", "/student/all"), new MockHttpServletResponse(),
+                (request, response) -> pinned.set(readYourWrites.isPinned()));
+        assertFalse(readYourWrites.isPinned());
+        return pinned.get();
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.addHeader(ReadYourWritesFilter.CLIENT_HEADER, CLIENT);
+        return request;
+    }
+}
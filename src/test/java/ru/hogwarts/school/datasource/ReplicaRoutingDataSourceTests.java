@@ -0,0 +1,149 @@
+package ru.hogwarts.school.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReplicaRoutingDataSourceTests {
+    private static final long WINDOW_MILLIS = 100;
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replicaDatabase;
+    private FailingDataSource replica;
+    private ReadYourWrites readYourWrites;
+    private MeterRegistry meterRegistry;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setUp() {
+        primary = createDatabase("primary");
+        replicaDatabase = createDatabase("replica");
+        replica = new FailingDataSource(replicaDatabase);
+        readYourWrites = new ReadYourWrites(WINDOW_MILLIS);
+        meterRegistry = new SimpleMeterRegistry();
+        routingDataSource = new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica),
+                readYourWrites, 1, meterRegistry);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        routingDataSource.close();
+        primary.shutdown();
+        replicaDatabase.shutdown();
+    }
+
+    @Test
+    @DisplayName("Тест на чтение из реплики в транзакции только для чтения")
+    public void testReadOnlyTransactionUsesReplica() {
+        assertEquals("replica", readSource(true));
+        assertEquals("primary", readSource(false));
+        assertEquals("primary", jdbcTemplate.queryForObject("SELECT source FROM marker", String.class));
+    }
+
+    @Test
+    @DisplayName("Тест на переключение на основную базу при недоступной реплике")
+    public void testFallbackToPrimaryWhileReplicaIsDown() {
+        replica.down = true;
+        assertEquals("primary", readSource(true));
+        assertEquals(1, meterRegistry.get("datasource.routing.fallbacks").counter().count());
+
+        replica.down = false;
+        assertEquals("primary", readSource(true));
+        routingDataSource.checkReplicas();
+        assertEquals("replica", readSource(true));
+
+        replica.down = true;
+        routingDataSource.checkReplicas();
+        assertEquals(0, meterRegistry.get("datasource.replicas.healthy").gauge().value());
+        assertEquals("primary", readSource(true));
+    }
+
+    @Test
+    @DisplayName("Тест на проверку реплик в отдельном потоке")
+    public void testHealthChecksRunInBackground() throws Exception {
+        replica.down = true;
+        routingDataSource.startHealthChecks(10);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("datasource.replicas.healthy").gauge().value() != 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, meterRegistry.get("datasource.replicas.healthy").gauge().value());
+        assertEquals("primary", readSource(true));
+    }
+
+    @Test
+    @DisplayName("Тест на чтение своих записей из основной базы в течение окна")
+    public void testReadYourWritesWindow() throws Exception {
+        readYourWrites.recordWrite("client");
+
+        readYourWrites.pin("client");
+        assertEquals("primary", readSource(true));
+        readYourWrites.release();
+
+        readYourWrites.pin("other");
+        assertEquals("replica", readSource(true));
+        readYourWrites.release();
+
+        Thread.sleep(2 * WINDOW_MILLIS);
+        readYourWrites.pin("client");
+        assertEquals("replica", readSource(true));
+        readYourWrites.release();
+    }
+
+    private String readSource(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("SELECT source FROM marker", String.class));
+    }
+
+    private static EmbeddedDatabase createDatabase(String source) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        new JdbcTemplate(database).execute("CREATE TABLE marker (source VARCHAR(16))");
+        new JdbcTemplate(database).update("INSERT INTO marker VALUES (?)", source);
+        return database;
+    }
+
+    private static class FailingDataSource extends DelegatingDataSource {
+        private volatile boolean down;
+
+        private FailingDataSource(EmbeddedDatabase database) {
+            super(database);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Replica is down");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ru.hogwarts.school.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReplicaRoutingJpaTests {
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private ReadYourWrites readYourWrites;
+    private ReplicaRoutingDataSource routingDataSource;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private EntityManagerFactory entityManagerFactory;
+    private ReplicaAwareTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setUp() {
+        primary = createDatabase("primary");
+        replica = createDatabase("replica");
+        readYourWrites = new ReadYourWrites(60_000);
+        routingDataSource = new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica),
+                readYourWrites, 1, new SimpleMeterRegistry());
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(new LazyConnectionDataSourceProxy(routingDataSource));
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setPackagesToScan("ru.hogwarts.school.model");
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "none"));
+        entityManagerFactoryBean.afterPropertiesSet();
+        entityManagerFactory = entityManagerFactoryBean.getObject();
+
+        transactionManager = new ReplicaAwareTransactionManager(routingDataSource);
+        transactionManager.setEntityManagerFactory(entityManagerFactory);
+        transactionManager.afterPropertiesSet();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        readYourWrites.release();
+        entityManagerFactoryBean.destroy();
+        routingDataSource.close();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    @DisplayName("Тест на чтение из реплики в JPA-транзакции только для чтения без записи в кэш")
+    public void testReadOnlyJpaTransactionUsesReplicaWithoutCacheWrites() {
+        assertEquals("replica:GET", readSource(true));
+        assertEquals("primary:NORMAL", readSource(false));
+    }
+
+    @Test
+    @DisplayName("Тест на чтение из основной базы с записью в кэш после записи клиента")
+    public void testPinnedJpaTransactionUsesPrimaryWithCache() {
+        readYourWrites.recordWrite("client");
+        readYourWrites.pin("client");
+
+        assertEquals("primary:NORMAL", readSource(true));
+    }
+
+    private String readSource(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> {
+            EntityManager entityManager =
+                    EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+            Object source = entityManager.createNativeQuery("SELECT source FROM marker").getSingleResult();
+            return source + ":" + entityManager.unwrap(Session.class).getCacheMode();
+        });
+    }
+
+    private static EmbeddedDatabase createDatabase(String source) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        new JdbcTemplate(database).execute("CREATE TABLE marker (source VARCHAR(16))");
+        new JdbcTemplate(database).update("INSERT INTO marker VALUES (?)", source);
+        return database;
+    }
+}
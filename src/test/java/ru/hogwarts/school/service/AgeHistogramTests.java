@@ -0,0 +1,56 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.hogwarts.school.dto.AgeDistributionDto;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AgeHistogramTests {
+
+    @Test
+    @DisplayName("Тест на расчёт распределения возраста по гистограмме")
+    public void testDistribution() {
+        AgeHistogram histogram = new AgeHistogram();
+        for (int age = 1; age <= 100; age++) {
+            histogram.add(age, 1);
+        }
+
+        AgeDistributionDto dto = histogram.toDto(1L, "Гриффиндор");
+
+        assertEquals(100, dto.count());
+        assertEquals(50.5, dto.mean(), 1e-9);
+        assertEquals(1, dto.min());
+        assertEquals(100, dto.max());
+        assertEquals(Math.sqrt((100.0 * 100 - 1) / 12), dto.stddev(), 1e-9);
+        assertEquals(50, dto.p50());
+        assertEquals(90, dto.p90());
+        assertEquals(99, dto.p99());
+    }
+
+    @Test
+    @DisplayName("Тест на объединение гистограмм возраста")
+    public void testMerge() {
+        AgeHistogram first = new AgeHistogram();
+        first.add(20, 3);
+        AgeHistogram second = new AgeHistogram();
+        second.add(300, 1);
+
+        AgeDistributionDto dto = new AgeHistogram().merge(first).merge(second).toDto(null, null);
+
+        assertEquals(4, dto.count());
+        assertEquals(20, dto.p50());
+        assertEquals(300, dto.p99());
+        assertEquals(300, dto.max());
+    }
+
+    @Test
+    @DisplayName("Тест на распределение возраста без студентов")
+    public void testEmpty() {
+        AgeDistributionDto dto = new AgeHistogram().toDto(null, null);
+
+        assertEquals(0, dto.count());
+        assertNull(dto.mean());
+        assertNull(dto.p50());
+    }
+}
@@ -0,0 +1,113 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AvatarResponseWriterTests {
+    private static final byte[] DATA = "0123456789".getBytes();
+    private static final String ETAG = "\"abc\"";
+
+    private final AvatarResponseWriter writer = new AvatarResponseWriter();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Тест на отдачу файла целиком с ETag и Last-Modified")
+    public void testWriteFullFile() throws Exception {
+        Path file = Files.write(tempDir.resolve("avatar.png"), DATA);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/avatars/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        writer.writeFile(request, response, file, ETAG, MediaType.IMAGE_PNG);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+        assertNotNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertArrayEquals(DATA, response.getContentAsByteArray());
+    }
+
+    @Test
+    @DisplayName("Тест на ответ 304 при совпадении If-None-Match")
+    public void testNotModified() throws Exception {
+        Path file = Files.write(tempDir.resolve("avatar.png"), DATA);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/avatars/1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        writer.writeFile(request, response, file, ETAG, MediaType.IMAGE_PNG);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    @DisplayName("Тест на отдачу части файла по Range")
+    public void testWriteRange() throws Exception {
+        Path file = Files.write(tempDir.resolve("avatar.png"), DATA);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/avatars/1");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        writer.writeFile(request, response, file, ETAG, MediaType.IMAGE_PNG);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals("2345".getBytes(), response.getContentAsByteArray());
+    }
+
+    @Test
+    @DisplayName("Тест на игнорирование Range при устаревшем If-Range")
+    public void testIgnoreRangeWithStaleIfRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/avatars/1");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"other\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        writer.writeBytes(request, response, DATA, ETAG, MediaType.IMAGE_PNG);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(DATA, response.getContentAsByteArray());
+    }
+
+    @Test
+    @DisplayName("Тест на ответ 416 при недопустимом Range")
+    public void testRangeNotSatisfiable() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/avatars/1");
+        request.addHeader(HttpHeaders.RANGE, "bytes=20-30");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        writer.writeBytes(request, response, DATA, ETAG, MediaType.IMAGE_PNG);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    @DisplayName("Тест на передачу файла через sendfile")
+    public void testSendfile() throws Exception {
+        Path file = Files.write(tempDir.resolve("avatar.png"), DATA);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/avatars/1");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        writer.writeFile(request, response, file, ETAG, MediaType.IMAGE_PNG);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(5L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+}
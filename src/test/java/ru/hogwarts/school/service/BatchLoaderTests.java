@@ -0,0 +1,99 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchLoaderTests {
+    private static final int THREADS = 20;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+
+    @Test
+    @DisplayName("Тест на объединение одновременных запросов в один пакет")
+    public void testCoalesceConcurrentLoads() throws Exception {
+        BatchLoader<String> loader = new BatchLoader<>("test", this::fetch, 200, 100, meterRegistry);
+
+        List<Optional<String>> results = loadConcurrently(loader, id -> id % 10);
+
+        assertEquals(1, batches.size());
+        assertEquals(10, batches.get(0).size());
+        results.forEach(result -> assertTrue(result.isPresent()));
+        assertEquals(THREADS, meterRegistry.get("batch.loader.requests").counter().count());
+        assertEquals(THREADS, meterRegistry.get("batch.loader.coalescing.ratio").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Тест на отправку пакета при достижении максимального размера")
+    public void testDispatchFullBatch() throws Exception {
+        BatchLoader<String> loader = new BatchLoader<>("test", this::fetch, 10_000, 5, meterRegistry);
+
+        long start = System.nanoTime();
+        loadConcurrently(loader, id -> id);
+
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+        assertEquals(THREADS, batches.stream().mapToInt(List::size).sum());
+        batches.forEach(batch -> assertTrue(batch.size() <= 5));
+    }
+
+    @Test
+    @DisplayName("Тест на отсутствующие ключи и ошибки загрузки пакета")
+    public void testMissingKeysAndFailures() {
+        BatchLoader<String> loader = new BatchLoader<>("test", this::fetch, 0, 100, meterRegistry);
+        BatchLoader<String> failing = new BatchLoader<>("failing", ids -> {
+            throw new IllegalStateException("db down");
+        }, 0, 100, meterRegistry);
+
+        assertEquals(Optional.of("value-1"), loader.load(1L));
+        assertEquals(Optional.empty(), loader.load(-1L));
+        assertThrows(IllegalStateException.class, () -> failing.load(1L));
+        assertThrows(IllegalStateException.class, () -> failing.load(1L));
+    }
+
+    private List<Optional<String>> loadConcurrently(BatchLoader<String> loader,
+                                                    Function<Long, Long> key) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Optional<String>>> futures = new ArrayList<>();
+            for (long i = 0; i < THREADS; i++) {
+                long id = key.apply(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return loader.load(id);
+                }));
+            }
+            start.countDown();
+            List<Optional<String>> results = new ArrayList<>();
+            for (Future<Optional<String>> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<Long, String> fetch(Collection<Long> ids) {
+        batches.add(List.copyOf(ids));
+        return ids.stream()
+                .filter(id -> id >= 0)
+                .collect(Collectors.toMap(Function.identity(), id -> "value-" + id));
+    }
+}
@@ -0,0 +1,37 @@
+package ru.hogwarts.school.service;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.hogwarts.school.model.Student;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConstraintViolationsTests {
+
+    @Test
+    @DisplayName("Тест на распознавание нарушения уникальности студента")
+    public void testUniqueViolationIsRecognised() {
+        assertTrue(ConstraintViolations.violates(violation("students_name_age_unique"), Student.NAME_AGE_UNIQUE));
+        assertTrue(ConstraintViolations.violates(violation("PUBLIC.STUDENTS_NAME_AGE_UNIQUE_INDEX_8"),
+                Student.NAME_AGE_UNIQUE));
+    }
+
+    @Test
+    @DisplayName("Тест на пропуск нарушений других ограничений")
+    public void testOtherViolationsAreNotRecognised() {
+        assertFalse(ConstraintViolations.violates(violation("fk_students_faculty_id"), Student.NAME_AGE_UNIQUE));
+        assertFalse(ConstraintViolations.violates(
+                new DataIntegrityViolationException("NULL not allowed for column \"name\""), Student.NAME_AGE_UNIQUE));
+    }
+
+    private static DataIntegrityViolationException violation(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement",
+                        new SQLException("violation of " + constraint), constraint));
+    }
+}
@@ -0,0 +1,59 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CountingBloomFilterTests {
+    private static final int KEYS = 10_000;
+
+    @Test
+    @DisplayName("Тест на отсутствие ложноотрицательных ответов фильтра")
+    public void testNoFalseNegatives() {
+        CountingBloomFilter filter = new CountingBloomFilter(KEYS, 0.01);
+        for (int i = 0; i < KEYS; i++) {
+            filter.add("Студент|" + i);
+        }
+
+        for (int i = 0; i < KEYS; i++) {
+            assertTrue(filter.mightContain("Студент|" + i));
+        }
+        assertEquals(KEYS, filter.size());
+    }
+
+    @Test
+    @DisplayName("Тест на долю ложноположительных ответов фильтра")
+    public void testFalsePositiveRate() {
+        CountingBloomFilter filter = new CountingBloomFilter(KEYS, 0.01);
+        for (int i = 0; i < KEYS; i++) {
+            filter.add("Студент|" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = KEYS; i < 2 * KEYS; i++) {
+            if (filter.mightContain("Студент|" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < KEYS * 0.03, "False positives : " + falsePositives);
+        assertTrue(filter.falsePositiveRate() < 0.03);
+        assertTrue(filter.memoryBytes() < 2 * KEYS * 10);
+    }
+
+    @Test
+    @DisplayName("Тест на удаление ключей из фильтра")
+    public void testRemove() {
+        CountingBloomFilter filter = new CountingBloomFilter(KEYS, 0.01);
+        filter.add("Гриффиндор|Красный");
+        filter.add("Гриффиндор|Красный");
+
+        filter.remove("Гриффиндор|Красный");
+        assertTrue(filter.mightContain("Гриффиндор|Красный"));
+
+        filter.remove("Гриффиндор|Красный");
+        assertFalse(filter.mightContain("Гриффиндор|Красный"));
+        assertEquals(0, filter.size());
+        assertEquals(0.0, filter.falsePositiveRate());
+    }
+}
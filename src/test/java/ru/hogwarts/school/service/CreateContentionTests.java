@@ -0,0 +1,115 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.SqlStatementCounter;
+import ru.hogwarts.school.dto.FacultyRequestDto;
+import ru.hogwarts.school.dto.StudentRequestDto;
+import ru.hogwarts.school.exceptions.FacultyAlreadyExistsException;
+import ru.hogwarts.school.exceptions.StudentAlreadyExistsException;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CreateContentionTests {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private FacultyService facultyService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @AfterEach
+    public void tearDown() {
+        studentRepository.deleteAll();
+        facultyRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Тест на отсутствие дубликатов при одновременном добавлении студента")
+    public void testConcurrentAddStudent() throws Exception {
+        StudentRequestDto dto = new StudentRequestDto("Невилл", 17);
+
+        List<Throwable> failures = runConcurrently(() -> studentService.addStudent(dto));
+
+        assertEquals(THREADS - 1, failures.size());
+        failures.forEach(failure -> assertInstanceOf(StudentAlreadyExistsException.class, failure));
+        assertEquals(1, studentRepository.count());
+    }
+
+    @Test
+    @DisplayName("Тест на отсутствие дубликатов при одновременном добавлении факультета")
+    public void testConcurrentAddFaculty() throws Exception {
+        FacultyRequestDto dto = new FacultyRequestDto("Пуффендуй", "Жёлтый");
+
+        List<Throwable> failures = runConcurrently(() -> facultyService.addFaculty(dto));
+
+        assertEquals(THREADS - 1, failures.size());
+        failures.forEach(failure -> assertInstanceOf(FacultyAlreadyExistsException.class, failure));
+        assertEquals(1, facultyRepository.count());
+    }
+
+    @Test
+    @DisplayName("Тест на добавление студента одним запросом к БД")
+    public void testAddStudentSingleStatement() {
+        studentService.addStudent(new StudentRequestDto("Луна", 16));
+
+        SqlStatementCounter.reset();
+        studentService.addStudent(new StudentRequestDto("Джинни", 16));
+        assertEquals(1, SqlStatementCounter.count());
+
+        SqlStatementCounter.reset();
+        assertThrows(StudentAlreadyExistsException.class,
+                () -> studentService.addStudent(new StudentRequestDto("Луна", 16)));
+        assertEquals(1, SqlStatementCounter.count());
+    }
+
+    private static List<Throwable> runConcurrently(Callable<?> task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<Throwable> failures = new ArrayList<>();
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                }
+            }
+            return failures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.SqlStatementCounter;
+import ru.hogwarts.school.dto.FacultyRequestDto;
+import ru.hogwarts.school.dto.FacultyResponseDto;
+import ru.hogwarts.school.exceptions.FacultyNotFoundException;
+import ru.hogwarts.school.repository.FacultyRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class FacultyCacheTests {
+
+    @Autowired
+    private FacultyService facultyService;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    public void tearDown() {
+        facultyRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Тест на чтение факультета по ИД из кэша второго уровня")
+    public void testGetFacultyByIdFromCache() {
+        FacultyResponseDto faculty = facultyService.addFaculty(new FacultyRequestDto("Гриффиндор", "Красный"));
+        facultyService.getFacultyById(faculty.id());
+
+        SqlStatementCounter.reset();
+        assertEquals("Гриффиндор", facultyService.getFacultyById(faculty.id()).value().name());
+        assertEquals(0, SqlStatementCounter.count());
+        assertTrue(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", "faculties")
+                .tag("result", "hit")
+                .functionCounter()
+                .count() > 0);
+    }
+
+    @Test
+    @DisplayName("Тест на чтение факультетов по цвету из кэша запросов")
+    public void testGetFacultiesByColorFromQueryCache() {
+        facultyService.addFaculty(new FacultyRequestDto("Гриффиндор", "Красный"));
+        facultyService.getFacultiesByColor("Красный", null, null);
+
+        SqlStatementCounter.reset();
+        assertEquals(1, facultyService.getFacultiesByColor("Красный", null, null).content().size());
+        assertEquals(0, SqlStatementCounter.count());
+    }
+
+    @Test
+    @DisplayName("Тест на вытеснение факультета из кэша при изменении и удалении")
+    public void testEvictOnChangeAndRemove() {
+        FacultyResponseDto faculty = facultyService.addFaculty(new FacultyRequestDto("Гриффиндор", "Красный"));
+        facultyService.getFacultyById(faculty.id());
+        facultyService.getFacultiesByColor("Красный", null, null);
+
+        facultyService.changeFaculty(faculty.id(), new FacultyRequestDto("Слизерин", "Зелёный"));
+
+        assertEquals("Слизерин", facultyService.getFacultyById(faculty.id()).value().name());
+        assertThrows(FacultyNotFoundException.class,
+                () -> facultyService.getFacultiesByColor("Красный", null, null));
+        assertEquals(1, facultyService.getFacultiesByColor("Зелёный", null, null).content().size());
+
+        facultyService.removeFacultyById(faculty.id());
+
+        assertThrows(FacultyNotFoundException.class, () -> facultyService.getFacultyById(faculty.id()));
+    }
+}
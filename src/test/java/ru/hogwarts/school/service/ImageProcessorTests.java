@@ -0,0 +1,120 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.hogwarts.school.exceptions.ImageTooLargeException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageProcessorTests {
+    private static final long MAX_PIXELS = 100_000_000L;
+    private static final long MAX_DECODED_PIXELS = 1_000_000L;
+    private static final int GRAYSCALE = 0;
+    private static final int TRUECOLOR = 2;
+
+    private final ImageProcessor imageProcessor = new ImageProcessor(MAX_PIXELS, MAX_DECODED_PIXELS);
+
+    @Test
+    @DisplayName("Тест на отклонение изображения сверх лимита пикселей по заголовку")
+    public void testRejectImageOverPixelBudget() throws Exception {
+        byte[] png = createPng(11_000, 10_000, GRAYSCALE);
+
+        assertThrows(ImageTooLargeException.class,
+                () -> imageProcessor.validate(new ByteArrayInputStream(png)));
+        assertThrows(ImageTooLargeException.class,
+                () -> imageProcessor.decode(new ByteArrayInputStream(png), 100));
+    }
+
+    @Test
+    @DisplayName("Тест на декодирование большого изображения с прореживанием в ограниченной памяти")
+    public void testDecodeLargeImageInBoundedMemory() throws Exception {
+        byte[] png = createPng(8_000, 8_000, TRUECOLOR);
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        BufferedImage image = imageProcessor.decode(new ByteArrayInputStream(png), 400);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(400, image.getWidth());
+        assertEquals(400, image.getHeight());
+        assertTrue(allocated < 32L * 1024 * 1024, "Allocated " + allocated + " bytes");
+    }
+
+    @Test
+    @DisplayName("Тест на декодирование изображения, не помещающегося в бюджет по высоте")
+    public void testDecodeTallImageWithinDecodedBudget() throws Exception {
+        byte[] png = createPng(200, 40_000, TRUECOLOR);
+
+        BufferedImage image = imageProcessor.decode(new ByteArrayInputStream(png), 400);
+
+        assertTrue((long) image.getWidth() * image.getHeight() <= MAX_DECODED_PIXELS);
+    }
+
+    @Test
+    @DisplayName("Тест на превью изображений нестандартных размеров")
+    public void testScaleOddSizedImages() throws Exception {
+        int[][] sizes = {{1, 1}, {50, 3_000}, {3_000, 1}, {99, 99}};
+        for (int[] size : sizes) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(size[0], size[1], BufferedImage.TYPE_INT_RGB), "png", baos);
+
+            BufferedImage image = imageProcessor.decode(new ByteArrayInputStream(baos.toByteArray()), 100);
+            BufferedImage preview = imageProcessor.scaleToWidth(image, 100);
+
+            assertEquals(Math.min(100, image.getWidth()), preview.getWidth());
+            assertTrue(preview.getHeight() >= 1);
+        }
+    }
+
+    private static byte[] createPng(int width, int height, int colorType) throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        png.write(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'});
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(header);
+        dos.writeInt(width);
+        dos.writeInt(height);
+        dos.writeByte(8);
+        dos.writeByte(colorType);
+        dos.writeByte(0);
+        dos.writeByte(0);
+        dos.writeByte(0);
+        writeChunk(png, "IHDR", header.toByteArray());
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(data)) {
+            byte[] row = new byte[1 + width * (colorType == TRUECOLOR ? 3 : 1)];
+            for (int y = 0; y < height; y++) {
+                deflater.write(row);
+            }
+        }
+        writeChunk(png, "IDAT", data.toByteArray());
+        writeChunk(png, "IEND", new byte[0]);
+        return png.toByteArray();
+    }
+
+    private static void writeChunk(ByteArrayOutputStream png, String type, byte[] data) throws IOException {
+        DataOutputStream dos = new DataOutputStream(png);
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        dos.writeInt(data.length);
+        dos.write(typeBytes);
+        dos.write(data);
+        dos.writeInt((int) crc.getValue());
+    }
+}
@@ -0,0 +1,132 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.SqlStatementCounter;
+import ru.hogwarts.school.dto.ImportReportDto;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ImportServiceTests {
+    private static final int ROWS = 200;
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    public void tearDown() {
+        studentRepository.deleteAll();
+        facultyRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Тест на пакетный импорт студентов из CSV")
+    public void testImportStudentsInBatches() throws Exception {
+        StringBuilder csv = new StringBuilder("name,age\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append("Студент,").append(i + 1).append('\n');
+        }
+
+        SqlStatementCounter.reset();
+        ImportReportDto report = importService.importStudents(toStream(csv.toString()), "text/csv");
+
+        assertEquals(ROWS, report.total());
+        assertEquals(ROWS, report.imported());
+        assertEquals(ROWS, studentRepository.count());
+        assertTrue(SqlStatementCounter.count() < 20, "SQL statements : " + SqlStatementCounter.count());
+    }
+
+    @Test
+    @DisplayName("Тест на отчёт об ошибках и дубликатах при импорте студентов")
+    public void testImportStudentsReportsRowErrors() throws Exception {
+        studentRepository.save(new Student("Василий", 25, null));
+        String ndjson = """
+                {"name":"Василий","age":25}
+                {"name":"Мария","age":22}
+                {"name":"Мария","age":22}
+                {"name":"Иван1","age":23}
+                {"name":"Елена","age":-1}
+                not json
+                """;
+
+        ImportReportDto report = importService.importStudents(toStream(ndjson), "application/x-ndjson");
+
+        assertEquals(6, report.total());
+        assertEquals(1, report.imported());
+        assertEquals(2, report.duplicates());
+        assertEquals(3, report.failed());
+        assertEquals(5, report.errors().size());
+        assertEquals(2, studentRepository.count());
+    }
+
+    @Test
+    @DisplayName("Тест на отчёт об ошибке сохранения, не связанной с уникальностью")
+    public void testImportReportsNonUniqueIntegrityFailure() throws Exception {
+        String ndjson = "{\"name\":\"Мария\",\"age\":22}\n"
+                + "{\"name\":\"" + "Я".repeat(300) + "\",\"age\":23}\n";
+
+        ImportReportDto report = importService.importStudents(toStream(ndjson), "application/x-ndjson");
+
+        assertEquals(1, report.imported());
+        assertEquals(0, report.duplicates());
+        assertEquals(1, report.failed());
+        assertEquals("Ошибка сохранения строки", report.errors().get(0).message());
+        assertEquals(1, studentRepository.count());
+    }
+
+    @Test
+    @DisplayName("Тест на импорт факультетов из CSV")
+    public void testImportFaculties() throws Exception {
+        String csv = "name,color\nГриффиндор,Красный\nСлизерин,Зелёный\nгриффиндор,Красный\n";
+
+        ImportReportDto report = importService.importFaculties(toStream(csv), "text/csv");
+
+        assertEquals(2, report.imported());
+        assertEquals(1, report.duplicates());
+        assertEquals(2, facultyRepository.count());
+    }
+
+    @Test
+    @DisplayName("Тест на пропуск проверки дубликатов для заведомо новых записей")
+    public void testImportSkipsExistenceQueryForNewKeys() throws Exception {
+        Counter skippedQueries = meterRegistry.get("duplicate.filter.skipped.queries")
+                .tag("filter", "students")
+                .counter();
+        double before = skippedQueries.count();
+
+        importService.importStudents(toStream("name,age\nГарри,17\nРон,17\n"), "text/csv");
+        assertEquals(before + 1, skippedQueries.count());
+
+        ImportReportDto report = importService.importStudents(toStream("name,age\nГарри,17\nДжинни,16\n"), "text/csv");
+        assertEquals(1, report.imported());
+        assertEquals(1, report.duplicates());
+        assertEquals(3, studentRepository.count());
+    }
+
+    private static ByteArrayInputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
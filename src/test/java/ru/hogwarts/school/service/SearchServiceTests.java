@@ -0,0 +1,98 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.dto.SearchResultDto;
+import ru.hogwarts.school.dto.SearchResultDto.Type;
+import ru.hogwarts.school.exceptions.EmptyStringException;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SearchServiceTests {
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    private Faculty faculty;
+    private Student student;
+
+    @BeforeEach
+    public void setUp() {
+        faculty = facultyRepository.save(new Faculty("Гриффиндор", "Красный", null));
+        student = studentRepository.save(new Student("Гарри Поттер", 17, faculty));
+        studentRepository.save(new Student("Гермиона Грейнджер", 17, faculty));
+        searchService.build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        studentRepository.deleteAll();
+        facultyRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Тест на поиск студента с опечаткой в имени")
+    public void testSearchWithTypo() {
+        List<SearchResultDto> results = searchService.search("Потер", null);
+
+        assertFalse(results.isEmpty());
+        assertEquals(Type.STUDENT, results.get(0).type());
+        assertEquals(student.getId(), results.get(0).id());
+        assertEquals("Гарри Поттер", results.get(0).value());
+    }
+
+    @Test
+    @DisplayName("Тест на ранжирование результатов поиска по схожести")
+    public void testSearchRanksByScore() {
+        List<SearchResultDto> results = searchService.search("гриффиндор", 10);
+
+        assertEquals(Type.FACULTY, results.get(0).type());
+        assertEquals(faculty.getId(), results.get(0).id());
+        assertEquals("name", results.get(0).field());
+        assertEquals(1.0, results.get(0).score());
+        for (int i = 1; i < results.size(); i++) {
+            assertTrue(results.get(i - 1).score() >= results.get(i).score());
+        }
+        assertEquals(Type.FACULTY, searchService.search("красн", null).get(0).type());
+    }
+
+    @Test
+    @DisplayName("Тест на обновление поискового индекса при изменении данных")
+    public void testSearchIndexFollowsChanges() {
+        student.setName("Рон Уизли");
+        student = studentRepository.save(student);
+        Faculty slytherin = facultyRepository.save(new Faculty("Слизерин", "Зелёный", null));
+
+        assertTrue(searchService.search("Поттер", null).stream().noneMatch(r -> r.id().equals(student.getId())));
+        assertEquals(student.getId(), searchService.search("Уизли", null).get(0).id());
+        assertEquals(slytherin.getId(), searchService.search("Слизирин", null).get(0).id());
+
+        studentRepository.delete(student);
+        assertTrue(searchService.search("Уизли", null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Тест на отклонение пустого поискового запроса")
+    public void testSearchRejectsBlankQuery() {
+        assertThrows(EmptyStringException.class, () -> searchService.search(" ", null));
+    }
+}
@@ -0,0 +1,81 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StudentNameIndexTests {
+
+    private final StudentRepository studentRepository = mock(StudentRepository.class);
+    private final StudentNameIndex studentNameIndex = new StudentNameIndex(studentRepository);
+
+    @BeforeEach
+    public void setUp() {
+        when(studentRepository.findAllNames()).thenReturn(List.of(
+                "Василий", "Валентина", "Вася", "Алексей", "Anna", "Василий", "Ёжик", "ВАСИЛИСА"));
+        studentNameIndex.build();
+    }
+
+    @Test
+    @DisplayName("Тест на поиск имён по началу без учёта регистра")
+    public void testSearchIgnoresCase() {
+        assertEquals(List.of("Валентина", "Василий", "ВАСИЛИСА", "Вася"), studentNameIndex.search("ва", 10));
+        assertEquals(List.of("Василий", "ВАСИЛИСА"), studentNameIndex.search("ВАСИЛ", 10));
+        assertEquals(List.of("Anna"), studentNameIndex.search("a", 10));
+        assertEquals(List.of("Ёжик"), studentNameIndex.search("ё", 10));
+        assertEquals(List.of(), studentNameIndex.search("я", 10));
+    }
+
+    @Test
+    @DisplayName("Тест на ограничение количества найденных имён")
+    public void testSearchRespectsLimit() {
+        assertEquals(List.of("Валентина", "Василий"), studentNameIndex.search("в", 2));
+        assertEquals(8 - 1, studentNameIndex.search("", 100).size());
+    }
+
+    @Test
+    @DisplayName("Тест на обновление индекса имён при изменении студентов")
+    public void testIndexFollowsStudentChanges() {
+        studentNameIndex.onStudentChanged(new StudentChangedEvent(1L, "Василий", 20, null, null));
+        assertEquals(List.of("Василий", "ВАСИЛИСА"), studentNameIndex.search("васил", 10));
+
+        studentNameIndex.onStudentChanged(new StudentChangedEvent(6L, "Василий", 20, null, null));
+        studentNameIndex.onStudentChanged(new StudentChangedEvent(3L, "Вася", 20, "Ярослав", 20));
+        studentNameIndex.onStudentChanged(new StudentChangedEvent(9L, null, null, "Василёк", 7));
+
+        assertEquals(List.of("Валентина", "ВАСИЛИСА", "Василёк"), studentNameIndex.search("ва", 10));
+        assertEquals(List.of("Ярослав"), studentNameIndex.search("я", 10));
+    }
+
+    @Test
+    @DisplayName("Тест на достройку индекса имён после изменений во время построения")
+    public void testIndexIsRepairedAfterConcurrentChanges() throws Exception {
+        StudentNameIndex index = new StudentNameIndex(studentRepository);
+        AtomicInteger loads = new AtomicInteger();
+        when(studentRepository.findAllNames()).thenAnswer(invocation -> {
+            if (loads.incrementAndGet() <= 3) {
+                index.onStudentChanged(new StudentChangedEvent(1L, null, null, "Гарри", 17));
+            }
+            return List.of("Гарри", "Гермиона");
+        });
+
+        index.build();
+        assertEquals(List.of(), index.search("гер", 10));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (index.search("гер", 10).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(List.of("Гермиона"), index.search("гер", 10));
+        assertEquals(4, loads.get());
+    }
+}
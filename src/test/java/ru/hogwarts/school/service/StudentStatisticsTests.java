@@ -0,0 +1,74 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class StudentStatisticsTests {
+
+    @Autowired
+    private StudentStatistics studentStatistics;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void tearDown() {
+        studentRepository.deleteAll();
+        studentStatistics.check();
+    }
+
+    @Test
+    @DisplayName("Тест на обновление индекса возрастов при изменении студентов")
+    public void testIndexFollowsStudentChanges() {
+        List<Student> students = studentRepository.saveAll(List.of(
+                new Student("Василий", 20, null),
+                new Student("Мария", 22, null),
+                new Student("Иван", 30, null)));
+
+        assertEquals(3, studentStatistics.count());
+        assertEquals(24.0, studentStatistics.average().orElseThrow());
+        assertEquals(20, studentStatistics.minAge().orElseThrow());
+        assertEquals(30, studentStatistics.maxAge().orElseThrow());
+        assertEquals(2, studentStatistics.countBetween(20, 22));
+
+        Student ivan = students.get(2);
+        ivan.setAge(21);
+        studentRepository.save(ivan);
+        studentRepository.delete(students.get(0));
+
+        assertEquals(2, studentStatistics.count());
+        assertEquals(21, studentStatistics.minAge().orElseThrow());
+        assertEquals(22, studentStatistics.maxAge().orElseThrow());
+        assertEquals(21.5, studentStatistics.average().orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Тест на восстановление индекса возрастов по данным БД")
+    public void testCheckRepairsDrift() {
+        studentRepository.save(new Student("Василий", 20, null));
+        jdbcTemplate.update("UPDATE students SET age = 40");
+
+        assertEquals(20, studentStatistics.maxAge().orElseThrow());
+        studentStatistics.check();
+
+        assertEquals(1, studentStatistics.count());
+        assertEquals(40, studentStatistics.maxAge().orElseThrow());
+        assertEquals(0, studentStatistics.countBetween(1, 39));
+    }
+}